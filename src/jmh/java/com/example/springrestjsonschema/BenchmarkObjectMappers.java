@@ -0,0 +1,70 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * The {@link ObjectMapper}s the benchmarks compare.
+ */
+class BenchmarkObjectMappers {
+
+	/**
+	 * Returns the {@link ObjectMapper} as configured by Spring Boot for the application, i.e. including
+	 * {@link JacksonCustomizations.RestbucksModule} and the {@code spring.jackson.*} settings of
+	 * {@code application.properties}.
+	 *
+	 * @param properties additional properties in {@code key=value} form.
+	 */
+	static ObjectMapper boot(String... properties) {
+
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JacksonAutoConfiguration.class,
+				JacksonCustomizations.class)
+				.properties(properties)
+				.web(WebApplicationType.NONE)
+				.bannerMode(Banner.Mode.OFF)
+				.logStartupInfo(false)
+				.run()) {
+
+			return context.getBean(ObjectMapper.class);
+		}
+	}
+
+	/**
+	 * Returns the Spring Boot configured {@link ObjectMapper} with {@code restbucks.jackson.afterburner} enabled.
+	 */
+	static ObjectMapper afterburner() {
+		return boot("restbucks.jackson.afterburner=true");
+	}
+
+	/**
+	 * Returns a plain {@link ObjectMapper} that only knows about {@code java.time} types, so it binds our types through
+	 * their fields. Unknown properties are ignored as with Spring Boot, as it renders {@link Order#isPaid()} and
+	 * friends which it cannot read back.
+	 */
+	static ObjectMapper plain() {
+
+		return new ObjectMapper()
+				.registerModule(new JavaTimeModule())
+				.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+	}
+
+	static ObjectMapper byName(String name) {
+
+		switch (name) {
+			case "boot":
+				return boot();
+			case "afterburner":
+				return afterburner();
+			case "plain":
+				return plain();
+			default:
+				throw new IllegalArgumentException("Unknown mapper " + name);
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Throughput of (de)serializing an {@link Order} as JSON, Smile and CBOR with the Spring Boot configured
+ * {@link ObjectMapper}, the binary ones through {@link BinaryRepresentations.FormatObjectMapper} as served by the
+ * application. The encoded size of each payload is reported as the {@code payloadBytes} secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+	@Param({ "1", "10", "100" })
+	int lineItems;
+
+	@Param({ "json", "smile", "cbor" })
+	String format;
+
+	ObjectWriter writer;
+	ObjectReader reader;
+
+	Order order;
+	byte[] payload;
+
+	@Setup
+	public void setUp() throws IOException {
+
+		ObjectMapper mapper = mapper(BenchmarkObjectMappers.boot(), format);
+
+		this.writer = mapper.writerFor(Order.class);
+		this.reader = mapper.readerFor(Order.class);
+
+		this.order = new Order(IntStream.range(0, lineItems)
+				.mapToObj(i -> new LineItem("Item " + i, i % 3 + 1, Milk.values()[i % 2], Size.values()[i % 2]))
+				.collect(Collectors.toList()), Location.IN_STORE);
+		this.payload = writer.writeValueAsBytes(order);
+
+		Order read = reader.readValue(payload);
+
+		if (!read.getLineItems().equals(order.getLineItems())) {
+			throw new IllegalStateException("Format " + format + " does not round-trip");
+		}
+	}
+
+	@Benchmark
+	public byte[] serialize(PayloadSize size) throws IOException {
+
+		byte[] bytes = writer.writeValueAsBytes(order);
+		size.payloadBytes = bytes.length;
+
+		return bytes;
+	}
+
+	@Benchmark
+	public Order deserialize(PayloadSize size) throws IOException {
+
+		size.payloadBytes = payload.length;
+
+		return reader.readValue(payload);
+	}
+
+	/**
+	 * Reports the size of the payload written or read, in bytes, alongside the throughput.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class PayloadSize {
+		public long payloadBytes;
+	}
+
+	private static ObjectMapper mapper(ObjectMapper json, String format) {
+
+		switch (format) {
+			case "json":
+				return json;
+			case "smile":
+				return new BinaryRepresentations.FormatObjectMapper(json, new SmileFactory());
+			case "cbor":
+				return new BinaryRepresentations.FormatObjectMapper(json, new CBORFactory());
+			default:
+				throw new IllegalArgumentException("Unknown format " + format);
+		}
+	}
+}
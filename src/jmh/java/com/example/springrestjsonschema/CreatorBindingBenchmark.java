@@ -0,0 +1,105 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization through a {@link JsonCreator} (as {@code FltWithJsonCreator} in the tests) compared to binding the
+ * same payload into fields, and of a {@link User} and a {@link LineItem}, whose creators
+ * {@code restbucks.jackson.afterburner} calls directly, with the mapper as configured by Spring Boot and with
+ * Afterburner enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreatorBindingBenchmark {
+
+	static final byte[] JSON = "{\"carrier\":\"CX\",\"fltNum\":\"CX123\"}".getBytes(StandardCharsets.UTF_8);
+	static final byte[] USER = "{\"username\":\"jdoe\",\"password\":\"secret\"}".getBytes(StandardCharsets.UTF_8);
+	static final byte[] LINE_ITEM = "{\"name\":\"Latte\",\"quantity\":2,\"milk\":\"SEMI\",\"size\":\"LARGE\"}"
+			.getBytes(StandardCharsets.UTF_8);
+
+	@Param({ "boot", "afterburner" })
+	String mapper;
+
+	ObjectReader creatorReader;
+	ObjectReader fieldReader;
+	ObjectReader userReader;
+	ObjectReader lineItemReader;
+
+	@Setup
+	public void setUp() {
+
+		ObjectMapper objectMapper = BenchmarkObjectMappers.byName(mapper);
+
+		this.creatorReader = objectMapper.readerFor(FltWithJsonCreator.class);
+		this.fieldReader = objectMapper.readerFor(FltWithFields.class);
+		this.userReader = objectMapper.readerFor(User.class);
+		this.lineItemReader = objectMapper.readerFor(LineItem.class);
+	}
+
+	@Benchmark
+	public FltWithJsonCreator jsonCreator() throws IOException {
+		return creatorReader.readValue(JSON);
+	}
+
+	@Benchmark
+	public FltWithFields fields() throws IOException {
+		return fieldReader.readValue(JSON);
+	}
+
+	@Benchmark
+	public User user() throws IOException {
+		return userReader.readValue(USER);
+	}
+
+	@Benchmark
+	public LineItem lineItem() throws IOException {
+		return lineItemReader.readValue(LINE_ITEM);
+	}
+
+	@Getter
+	public static class FltWithJsonCreator {
+
+		@JsonIgnore
+		Long id;
+
+		String carrier;
+
+		String fltNum;
+
+		@JsonCreator
+		public FltWithJsonCreator(String carrier, String fltNum) {
+
+			this.carrier = carrier;
+			this.fltNum = fltNum;
+		}
+	}
+
+	@Getter
+	@NoArgsConstructor
+	public static class FltWithFields {
+
+		@JsonIgnore
+		Long id;
+
+		@JsonProperty
+		String carrier;
+
+		@JsonProperty
+		String fltNum;
+	}
+}
@@ -0,0 +1,68 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Throughput and allocation of (de)serializing an {@link Order} with a growing number of {@link LineItem}s. The
+ * {@code boot} mapper binds through the creators registered by {@link JacksonCustomizations.RestbucksModule} with
+ * {@code INFER_PROPERTY_MUTATORS} disabled, {@code afterburner} does the same with generated accessors and the
+ * {@code plain} one binds through the fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderSerializationBenchmark {
+
+	@Param({ "1", "10", "100" })
+	int lineItems;
+
+	@Param({ "boot", "afterburner", "plain" })
+	String mapper;
+
+	ObjectWriter writer;
+	ObjectReader reader;
+
+	Order order;
+	byte[] json;
+
+	@Setup
+	public void setUp() throws IOException {
+
+		ObjectMapper objectMapper = BenchmarkObjectMappers.byName(mapper);
+
+		this.writer = objectMapper.writerFor(Order.class);
+		this.reader = objectMapper.readerFor(Order.class);
+
+		this.order = new Order(IntStream.range(0, lineItems)
+				.mapToObj(i -> new LineItem("Item " + i, i % 3 + 1, Milk.values()[i % 2], Size.values()[i % 2]))
+				.collect(Collectors.toList()), Location.IN_STORE);
+		this.json = writer.writeValueAsBytes(order);
+
+		Order read = reader.readValue(json);
+
+		if (!read.getLineItems().equals(order.getLineItems())) {
+			throw new IllegalStateException("Mapper " + mapper + " does not round-trip " + new String(json));
+		}
+	}
+
+	@Benchmark
+	public byte[] serialize() throws IOException {
+		return writer.writeValueAsBytes(order);
+	}
+
+	@Benchmark
+	public Order deserialize() throws IOException {
+		return reader.readValue(json);
+	}
+}
@@ -0,0 +1,94 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of rendering a page of {@link OrderProjection}s the way Spring Data REST does for {@code projection=summary},
+ * i.e. by loading {@link Order}s and proxying them, compared to selecting {@link OrderSummary}s directly. Both include
+ * the count query and the serialization of the page content with the application's {@link ObjectMapper}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderSummaryBenchmark {
+
+	@Param({ "20", "100" })
+	int pageSize;
+
+	ConfigurableApplicationContext context;
+	OrderRepository orders;
+	TransactionTemplate transactions;
+	ProjectionFactory projections;
+	ObjectWriter writer;
+	Pageable pageable;
+
+	@Setup
+	public void setUp() {
+
+		this.context = new SpringApplicationBuilder(SpringRestJsonSchemaApplication.class)
+				.properties("server.port=0", "spring.jpa.open-in-view=false")
+				.bannerMode(Banner.Mode.OFF)
+				.logStartupInfo(false)
+				.run();
+
+		this.orders = context.getBean(OrderRepository.class);
+		this.transactions = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		this.transactions.setReadOnly(true);
+		this.projections = new SpelAwareProxyProjectionFactory();
+		this.writer = context.getBean(ObjectMapper.class).writerFor(new TypeReference<List<OrderProjection>>() {});
+		this.pageable = PageRequest.of(0, pageSize);
+
+		orders.saveAll(IntStream.range(0, 1000)
+				.mapToObj(i -> new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE),
+						new LineItem("Mocha", 2, Milk.WHOLE, Size.SMALL),
+						new LineItem("Tea", 1, Milk.SEMI, Size.SMALL)))
+				.collect(Collectors.toList()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public byte[] projectedEntities() {
+
+		return transactions.execute(status -> write(orders.findAll(pageable)
+				.map(order -> projections.createProjection(OrderProjection.class, order))
+				.getContent()));
+	}
+
+	@Benchmark
+	public byte[] summaryQuery() {
+		return transactions.execute(status -> write(orders.findSummaries(pageable).getContent()));
+	}
+
+	private byte[] write(List<?> content) {
+
+		try {
+			return writer.writeValueAsBytes(content);
+		} catch (Exception o_O) {
+			throw new IllegalStateException(o_O);
+		}
+	}
+}
@@ -0,0 +1,85 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of rejecting an overspecified {@link Order} body with the compiled {@link JsonSchemaValidator}, as done by
+ * {@link JsonSchemaValidationFilter}, compared to binding it the way Spring Data REST does, which silently drops the
+ * unknown properties. Every line item carries an unknown property, so the validator stops after
+ * {@code restbucks.validation.max-errors} violations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SchemaValidationBenchmark {
+
+	@Param({ "10", "100" })
+	int lineItems;
+
+	ConfigurableApplicationContext context;
+	JsonSchemaValidator validator;
+	JsonFactory factory;
+	ObjectReader reader;
+	byte[] payload;
+
+	@Setup
+	public void setUp() throws IOException {
+
+		this.context = new SpringApplicationBuilder(SpringRestJsonSchemaApplication.class)
+				.properties("server.port=0")
+				.bannerMode(Banner.Mode.OFF)
+				.logStartupInfo(false)
+				.run();
+
+		ObjectMapper mapper = context.getBean("jacksonHttpMessageConverter", AbstractJackson2HttpMessageConverter.class)
+				.getObjectMapper();
+
+		this.validator = JsonSchemaValidator.compile("Order",
+				mapper.readTree(context.getBean(JsonSchemaCache.class).getSchema(Order.class, Locale.getDefault()).getContent()));
+		this.factory = mapper.getFactory();
+		this.reader = mapper.readerFor(Order.class);
+
+		this.payload = IntStream.range(0, lineItems)
+				.mapToObj(i -> "{\"name\":\"Item " + i + "\",\"quantity\":1,\"milk\":\"SEMI\",\"size\":\"LARGE\","
+						+ "\"extra\":{\"shots\":[1,2,3],\"note\":\"" + "x".repeat(64) + "\"}}")
+				.collect(Collectors.joining(",", "{\"location\":\"IN_STORE\",\"lineItems\":[", "]}"))
+				.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<JsonSchemaValidator.Violation> validate() throws IOException {
+
+		try (JsonParser parser = factory.createParser(payload)) {
+			return validator.validate(parser, true, 50);
+		}
+	}
+
+	@Benchmark
+	public Order bind() throws IOException {
+		return reader.readValue(payload);
+	}
+}
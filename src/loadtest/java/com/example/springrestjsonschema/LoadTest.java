@@ -0,0 +1,459 @@
+package com.example.springrestjsonschema;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Drives a mix of the requests clients send against the application running on a random port with an embedded H2
+ * database, run with {@code mvn -Ploadtest verify -DskipTests}:
+ * <ul>
+ * <li>{@code create-order} orders with {@code loadtest.line-items} line items,</li>
+ * <li>{@code transition} moving one of the orders a user created to its next {@link Order.Status},</li>
+ * <li>{@code find-by-status} polling for paid orders, {@code summaries} and {@code projection} reading the
+ * {@code summary} projection of a page and of a single order,</li>
+ * <li>{@code schema} fetching the JSON schema of orders and {@code create-user} creating users.</li>
+ * </ul>
+ * Each of {@code loadtest.users} users sends requests back to back, picking them from a seeded random sequence so
+ * every run sends the same mix. After {@code loadtest.warmup} seconds, the latencies are recorded for
+ * {@code loadtest.duration} seconds, and the bytes allocated by the Tomcat request threads are measured.
+ * <p>
+ * The results are written to {@code target/loadtest-result.properties} and compared with the baseline
+ * {@code loadtest.baseline}: the run fails if the throughput of a scenario dropped, its p99 or the allocation per
+ * request grew by more than {@code loadtest.tolerance}, or any request failed. It also fails without a baseline, unless
+ * run with {@code loadtest.update-baseline=true}, which makes the results the new baseline.
+ * <p>
+ * Baselines only compare to runs on the same machine, so each machine running the load test gets its own, committed
+ * along with the sources. To record one, e.g. for a CI runner, run
+ * {@code mvn -Ploadtest verify -DskipTests -Dloadtest.update-baseline=true} with
+ * {@code -Dloadtest.baseline=src/loadtest/baselines/ci.properties}, commit the file and pass the same
+ * {@code loadtest.baseline} on later runs on that machine. Re-record it in the same commit as a change meant to move
+ * the numbers.
+ * <p>
+ * Latencies are recorded with the HdrHistogram Micrometer depends on.
+ */
+public class LoadTest {
+
+	private static final Map<String, Integer> WEIGHTS = new LinkedHashMap<>();
+
+	static {
+		WEIGHTS.put("create-order", 15);
+		WEIGHTS.put("transition", 15);
+		WEIGHTS.put("find-by-status", 25);
+		WEIGHTS.put("summaries", 20);
+		WEIGHTS.put("projection", 10);
+		WEIGHTS.put("schema", 10);
+		WEIGHTS.put("create-user", 5);
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		int users = Integer.getInteger("loadtest.users", 16);
+		Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup", 10));
+		Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration", 30));
+		int lineItems = Integer.getInteger("loadtest.line-items", 5);
+		long seed = Long.getLong("loadtest.seed", 42);
+		Path baseline = Paths.get(System.getProperty("loadtest.baseline", "src/loadtest/baseline.properties"));
+		double tolerance = Double.parseDouble(System.getProperty("loadtest.tolerance", "0.25"));
+		boolean updateBaseline = Boolean.getBoolean("loadtest.update-baseline");
+
+		Results results;
+
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringRestJsonSchemaApplication.class)
+				.properties("server.port=0", "spring.datasource.generate-unique-name=true", "logging.level.root=warn")
+				.bannerMode(Banner.Mode.OFF)
+				.logStartupInfo(false)
+				.run()) {
+
+			List<Long> orders = new ArrayList<>();
+
+			context.getBean(OrderRepository.class)
+					.saveAll(IntStream.range(0, 200)
+							.mapToObj(i -> new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE)))
+							.collect(Collectors.toList()))
+					.forEach(order -> orders.add(order.getId()));
+
+			URI base = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+			Mix mix = new Mix(HttpClient.newHttpClient(), base, orders, lineItems);
+
+			mix.run(users, warmup, seed, new Recording());
+			results = mix.run(users, duration, seed + users, new Recording()).toResults(duration);
+		}
+
+		results.print();
+		results.store(Paths.get("target", "loadtest-result.properties"));
+
+		if (updateBaseline) {
+
+			results.store(baseline);
+			System.out.println("Stored baseline " + baseline);
+
+			return;
+		}
+
+		if (!Files.exists(baseline)) {
+
+			System.err.println("No baseline " + baseline + " to compare to, record one for this machine with "
+					+ "-Dloadtest.update-baseline=true and commit it, see LoadTest.");
+			System.exit(1);
+		}
+
+		List<String> regressions = results.compareTo(Results.load(baseline), tolerance);
+
+		if (!regressions.isEmpty()) {
+
+			System.err.println("Regressions against " + baseline + ":");
+			regressions.forEach(regression -> System.err.println("  " + regression));
+			System.exit(1);
+		}
+
+		System.out.println("No regressions against " + baseline);
+	}
+
+	/**
+	 * The requests of the scenarios. Every user remembers the orders it created to move them through their lifecycle.
+	 */
+	private static class Mix {
+
+		private final HttpClient client;
+		private final URI base;
+		private final List<Long> orders;
+		private final String order;
+
+		Mix(HttpClient client, URI base, List<Long> orders, int lineItems) {
+
+			this.client = client;
+			this.base = base;
+			this.orders = orders;
+			this.order = IntStream.range(0, lineItems)
+					.mapToObj(i -> "{\"name\":\"Item " + i + "\",\"quantity\":1,\"milk\":\"SEMI\",\"size\":\"LARGE\"}")
+					.collect(Collectors.joining(",", "{\"location\":\"IN_STORE\",\"lineItems\":[", "]}"));
+		}
+
+		Recording run(int users, Duration duration, long seed, Recording recording) throws InterruptedException {
+
+			long end = System.nanoTime() + duration.toNanos();
+
+			List<Thread> threads = IntStream.range(0, users)
+					.mapToObj(user -> new Thread(() -> runUser(new Random(seed + user), end, recording), "loadtest-" + user))
+					.collect(Collectors.toList());
+
+			recording.start();
+			threads.forEach(Thread::start);
+
+			for (Thread thread : threads) {
+				thread.join();
+			}
+
+			recording.stop();
+
+			return recording;
+		}
+
+		private void runUser(Random random, long end, Recording recording) {
+
+			Deque<long[]> created = new ArrayDeque<>();
+			int total = WEIGHTS.values().stream().mapToInt(Integer::intValue).sum();
+
+			while (System.nanoTime() < end) {
+
+				String scenario = pick(random.nextInt(total));
+
+				if (scenario.equals("transition") && created.isEmpty()) {
+					scenario = "create-order";
+				}
+
+				HttpRequest request = request(scenario, random, created);
+				long start = System.nanoTime();
+
+				try {
+
+					HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+
+					if (response.statusCode() / 100 != 2) {
+						recording.error(scenario);
+						continue;
+					}
+
+					recording.record(scenario, System.nanoTime() - start);
+
+					if (scenario.equals("create-order")) {
+						response.headers().firstValue("Location").ifPresent(location -> created.addLast(
+								new long[] { Long.parseLong(location.substring(location.lastIndexOf('/') + 1)), 0 }));
+					}
+
+				} catch (IOException o_O) {
+					recording.error(scenario);
+				} catch (InterruptedException o_O) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+
+		private static String pick(int value) {
+
+			for (Map.Entry<String, Integer> entry : WEIGHTS.entrySet()) {
+
+				if (value < entry.getValue()) {
+					return entry.getKey();
+				}
+
+				value -= entry.getValue();
+			}
+
+			throw new IllegalArgumentException();
+		}
+
+		/**
+		 * @param created the ids and status ordinals of the orders the user created that are not taken yet.
+		 */
+		private HttpRequest request(String scenario, Random random, Deque<long[]> created) {
+
+			HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(30));
+
+			switch (scenario) {
+
+				case "create-order":
+					return builder.uri(base.resolve("/orders"))
+							.header("Content-Type", "application/json")
+							.POST(HttpRequest.BodyPublishers.ofString(order))
+							.build();
+
+				case "transition":
+					long[] next = created.removeFirst();
+					Order.Status status = Order.Status.values()[(int) ++next[1]];
+
+					if (status != Order.Status.TAKEN) {
+						created.addLast(next);
+					}
+
+					return builder.uri(base.resolve("/orders/" + next[0] + "/transitions/" + status))
+							.POST(HttpRequest.BodyPublishers.noBody())
+							.build();
+
+				case "find-by-status":
+					return builder.uri(base.resolve("/orders/search/findByStatus?status=PAID&size=20"))
+							.header("Accept", "application/hal+json")
+							.build();
+
+				case "summaries":
+					return builder.uri(base.resolve("/orders?projection=summary&size=20&page=" + random.nextInt(5)))
+							.header("Accept", "application/hal+json")
+							.build();
+
+				case "projection":
+					return builder.uri(base.resolve("/orders/" + orders.get(random.nextInt(orders.size()))
+							+ "?projection=summary"))
+							.header("Accept", "application/hal+json")
+							.build();
+
+				case "schema":
+					return builder.uri(base.resolve("/profile/orders"))
+							.header("Accept", "application/schema+json")
+							.build();
+
+				case "create-user":
+					return builder.uri(base.resolve("/users"))
+							.header("Content-Type", "application/json")
+							.POST(HttpRequest.BodyPublishers
+									.ofString("{\"username\":\"user-" + random.nextInt() + "\",\"password\":\"secret\"}"))
+							.build();
+
+				default:
+					throw new IllegalArgumentException(scenario);
+			}
+		}
+	}
+
+	/**
+	 * The latencies in microseconds and errors per scenario, and the bytes allocated by the Tomcat request threads.
+	 */
+	private static class Recording {
+
+		private final Map<String, Histogram> latencies = new HashMap<>();
+		private final Map<String, AtomicLong> errors = new HashMap<>();
+		private final Map<Long, Long> allocatedAtStart = new HashMap<>();
+		private long allocated;
+
+		Recording() {
+
+			WEIGHTS.keySet().forEach(scenario -> {
+				latencies.put(scenario, new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3));
+				errors.put(scenario, new AtomicLong());
+			});
+		}
+
+		void record(String scenario, long nanos) {
+			latencies.get(scenario).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), TimeUnit.MINUTES.toMicros(1)));
+		}
+
+		void error(String scenario) {
+			errors.get(scenario).incrementAndGet();
+		}
+
+		void start() {
+			allocatedAtStart.putAll(allocatedByRequestThreads());
+		}
+
+		void stop() {
+
+			allocated = allocatedByRequestThreads().entrySet().stream()
+					.mapToLong(entry -> entry.getValue() - allocatedAtStart.getOrDefault(entry.getKey(), 0L))
+					.sum();
+		}
+
+		Results toResults(Duration duration) {
+
+			Map<String, Double> values = new TreeMap<>();
+			long requests = 0;
+
+			for (String scenario : WEIGHTS.keySet()) {
+
+				Histogram histogram = latencies.get(scenario);
+				requests += histogram.getTotalCount();
+
+				values.put(scenario + ".throughput", histogram.getTotalCount() / (double) duration.getSeconds());
+				values.put(scenario + ".p50", histogram.getValueAtPercentile(50) / 1000d);
+				values.put(scenario + ".p99", histogram.getValueAtPercentile(99) / 1000d);
+				values.put(scenario + ".p999", histogram.getValueAtPercentile(99.9) / 1000d);
+				values.put(scenario + ".errors", (double) errors.get(scenario).get());
+			}
+
+			values.put("total.throughput", requests / (double) duration.getSeconds());
+			values.put("total.allocation-rate", allocated / (double) duration.getSeconds() / (1024 * 1024));
+			values.put("total.allocation-per-request", requests == 0 ? 0 : allocated / (double) requests / 1024);
+
+			return new Results(values);
+		}
+
+		/**
+		 * Threads that ended during the run are missed, Tomcat keeps its request threads for a minute when idle.
+		 */
+		private static Map<Long, Long> allocatedByRequestThreads() {
+
+			com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+			Map<Long, Long> allocated = new HashMap<>();
+
+			Thread.getAllStackTraces().keySet().stream()
+					.filter(thread -> thread.getName().startsWith("http-nio-") && thread.getName().contains("-exec-"))
+					.forEach(thread -> allocated.put(thread.getId(), threads.getThreadAllocatedBytes(thread.getId())));
+
+			return allocated;
+		}
+	}
+
+	/**
+	 * Throughput in requests per second, latencies in milliseconds, allocation rate in MB per second and allocation per
+	 * request in KB.
+	 */
+	private static class Results {
+
+		private final Map<String, Double> values;
+
+		Results(Map<String, Double> values) {
+			this.values = values;
+		}
+
+		static Results load(Path path) throws IOException {
+
+			Properties properties = new Properties();
+
+			try (Reader reader = Files.newBufferedReader(path)) {
+				properties.load(reader);
+			}
+
+			Map<String, Double> values = new TreeMap<>();
+			properties.stringPropertyNames().forEach(name -> values.put(name, Double.valueOf(properties.getProperty(name))));
+
+			return new Results(values);
+		}
+
+		/**
+		 * Written sorted by name, unlike {@link Properties#store}, so that baselines diff well.
+		 */
+		void store(Path path) throws IOException {
+
+			List<String> lines = new ArrayList<>();
+
+			lines.add("# LoadTest results, see LoadTest for the units");
+			values.forEach((name, value) -> lines.add(String.format(Locale.ROOT, "%s=%.3f", name, value)));
+
+			Files.createDirectories(path.toAbsolutePath().getParent());
+			Files.write(path, lines);
+		}
+
+		List<String> compareTo(Results baseline, double tolerance) {
+
+			List<String> regressions = new ArrayList<>();
+
+			baseline.values.forEach((name, expected) -> {
+
+				Double actual = values.get(name);
+
+				if (actual == null) {
+					return;
+				}
+
+				boolean regressed = name.endsWith(".throughput") ? actual < expected * (1 - tolerance)
+						: name.endsWith(".errors") ? actual > 0
+						: name.endsWith(".p99") || name.endsWith(".allocation-per-request")
+								? actual > expected * (1 + tolerance)
+								: false;
+
+				if (regressed) {
+					regressions.add(String.format(Locale.ROOT, "%s: %.3f, baseline %.3f", name, actual, expected));
+				}
+			});
+
+			return regressions;
+		}
+
+		void print() {
+
+			System.out.println();
+			System.out.println(String.format("%-16s %12s %10s %10s %10s %8s", "scenario", "requests/s", "p50 ms", "p99 ms",
+					"p99.9 ms", "errors"));
+
+			for (String scenario : WEIGHTS.keySet()) {
+				System.out.println(String.format(Locale.ROOT, "%-16s %12.1f %10.2f %10.2f %10.2f %8.0f", scenario,
+						values.get(scenario + ".throughput"), values.get(scenario + ".p50"), values.get(scenario + ".p99"),
+						values.get(scenario + ".p999"), values.get(scenario + ".errors")));
+			}
+
+			System.out.println(String.format(Locale.ROOT, "%-16s %12.1f", "total", values.get("total.throughput")));
+			System.out.println(String.format(Locale.ROOT, "allocation %.1f MB/s, %.1f KB per request",
+					values.get("total.allocation-rate"), values.get("total.allocation-per-request")));
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package com.example.springrestjsonschema;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compares throughput and latency of requests handled on the Tomcat thread pool with the ones handled on
+ * {@link VirtualThreads}, run with {@code mvn -Pvirtual-threads verify -DskipTests}. The number of connections and
+ * the durations default to {@code loadtest.connections=5000}, {@code loadtest.warmup=10} and
+ * {@code loadtest.duration=30} seconds.
+ * <p>
+ * Each mode starts the application on a random port with its own database seeded with orders. Every connection then
+ * sends requests back to back: three pages of order summaries, which query the database, for every order created.
+ * Responses other than {@code 2xx} and timeouts count as errors.
+ */
+public class ThreadModelLoadTest {
+
+	private static final String ORDER = "{\"location\":\"IN_STORE\",\"lineItems\":["
+			+ "{\"name\":\"Latte\",\"quantity\":1,\"milk\":\"SEMI\",\"size\":\"LARGE\"},"
+			+ "{\"name\":\"Mocha\",\"quantity\":2,\"milk\":\"WHOLE\",\"size\":\"SMALL\"}]}";
+
+	public static void main(String[] args) {
+
+		int connections = Integer.getInteger("loadtest.connections", 5000);
+		Duration warmup = Duration.ofSeconds(Integer.getInteger("loadtest.warmup", 10));
+		Duration duration = Duration.ofSeconds(Integer.getInteger("loadtest.duration", 30));
+
+		List<Result> results = Arrays.asList(run("platform", connections, warmup, duration),
+				run("virtual", connections, warmup, duration));
+
+		System.out.println();
+		System.out.println(String.format("%-10s %12s %10s %14s %10s %10s %8s", "threads", "connections", "requests",
+				"throughput/s", "p50 ms", "p99 ms", "errors"));
+		results.forEach(System.out::println);
+	}
+
+	private static Result run(String mode, int connections, Duration warmup, Duration duration) {
+
+		SpringApplicationBuilder builder = new SpringApplicationBuilder(SpringRestJsonSchemaApplication.class)
+				.properties("server.port=0", "spring.datasource.generate-unique-name=true", "logging.level.root=warn")
+				.bannerMode(Banner.Mode.OFF)
+				.logStartupInfo(false);
+
+		if (mode.equals("virtual")) {
+			builder.profiles("virtual-threads");
+		}
+
+		try (ConfigurableApplicationContext context = builder.run()) {
+
+			context.getBean(OrderRepository.class).saveAll(IntStream.range(0, 100)
+					.mapToObj(i -> new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE)))
+					.collect(Collectors.toList()));
+
+			URI base = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+			Load load = new Load(HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build(), base);
+
+			load.run(connections, warmup);
+
+			return load.run(connections, duration).toResult(mode, connections, duration);
+		}
+	}
+
+	/**
+	 * A closed loop per connection, i.e. each one sends its next request once the previous one completed.
+	 */
+	private static class Load {
+
+		private final HttpClient client;
+		private final URI base;
+
+		Load(HttpClient client, URI base) {
+
+			this.client = client;
+			this.base = base;
+		}
+
+		Latencies run(int connections, Duration duration) {
+
+			long end = System.nanoTime() + duration.toNanos();
+			List<Latencies> latencies = new ArrayList<>();
+			AtomicLong errors = new AtomicLong();
+
+			CompletableFuture<?>[] loops = IntStream.range(0, connections)
+					.mapToObj(connection -> {
+
+						Latencies recorded = new Latencies();
+						latencies.add(recorded);
+
+						return loop(connection, 0, end, recorded, errors);
+					})
+					.toArray(CompletableFuture[]::new);
+
+			CompletableFuture.allOf(loops).join();
+
+			return Latencies.merge(latencies, errors.get());
+		}
+
+		private CompletableFuture<Void> loop(int connection, int iteration, long end, Latencies latencies,
+				AtomicLong errors) {
+
+			if (System.nanoTime() >= end) {
+				return CompletableFuture.completedFuture(null);
+			}
+
+			long start = System.nanoTime();
+
+			return client.sendAsync(request(connection, iteration), HttpResponse.BodyHandlers.discarding())
+					.handle((response, error) -> {
+
+						if (error != null || response.statusCode() / 100 != 2) {
+							errors.incrementAndGet();
+						} else {
+							latencies.add(System.nanoTime() - start);
+						}
+
+						return null;
+					})
+					.thenCompose(ignored -> loop(connection, iteration + 1, end, latencies, errors));
+		}
+
+		private HttpRequest request(int connection, int iteration) {
+
+			HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(60));
+
+			if ((connection + iteration) % 4 == 0) {
+				return builder.uri(base.resolve("/orders"))
+						.header("Content-Type", "application/json")
+						.POST(HttpRequest.BodyPublishers.ofString(ORDER))
+						.build();
+			}
+
+			return builder.uri(base.resolve("/orders?projection=summary&size=20&page=" + iteration % 5))
+					.header("Accept", "application/hal+json")
+					.GET()
+					.build();
+		}
+	}
+
+	/**
+	 * The latencies of successful requests in nanoseconds.
+	 */
+	private static class Latencies {
+
+		private long[] values = new long[64];
+		private int size;
+		private long errors;
+
+		void add(long latency) {
+
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+
+			values[size++] = latency;
+		}
+
+		static Latencies merge(List<Latencies> latencies, long errors) {
+
+			Latencies merged = new Latencies();
+
+			merged.values = new long[Math.max(1, latencies.stream().mapToInt(it -> it.size).sum())];
+			latencies.forEach(it -> {
+				System.arraycopy(it.values, 0, merged.values, merged.size, it.size);
+				merged.size += it.size;
+			});
+			merged.errors = errors;
+
+			Arrays.sort(merged.values, 0, merged.size);
+
+			return merged;
+		}
+
+		Result toResult(String mode, int connections, Duration duration) {
+			return new Result(mode, connections, size, size / (double) duration.getSeconds(), percentile(0.5),
+					percentile(0.99), errors);
+		}
+
+		private double percentile(double percentile) {
+			return size == 0 ? Double.NaN : values[(int) Math.ceil(percentile * size) - 1] / 1_000_000d;
+		}
+	}
+
+	private static class Result {
+
+		private final String mode;
+		private final int connections;
+		private final int requests;
+		private final double throughput;
+		private final double p50;
+		private final double p99;
+		private final long errors;
+
+		Result(String mode, int connections, int requests, double throughput, double p50, double p99, long errors) {
+
+			this.mode = mode;
+			this.connections = connections;
+			this.requests = requests;
+			this.throughput = throughput;
+			this.p50 = p50;
+			this.p99 = p99;
+			this.errors = errors;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-10s %12d %10d %14.1f %10.1f %10.1f %8d", mode, connections, requests, throughput, p50,
+					p99, errors);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.example.springrestjsonschema;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link Order} moved out of {@code RBOrder} by the {@link OrderArchiver}, along with its line items. Archived orders
+ * are {@link Order.Status#TAKEN} and never change again, so they are only read, through {@link #toOrder()}, and
+ * deleted.
+ *
+ * @see OrderArchiveFallback
+ */
+@Entity
+@Immutable
+@Getter
+@ToString(exclude = "lineItems")
+@NoArgsConstructor(access = AccessLevel.PACKAGE)
+@Table(name = "RBOrder_archive")
+class ArchivedOrder {
+
+	private @Id Long id;
+	private Long version;
+	private Location location;
+	private LocalDateTime orderedDate;
+	private Order.Status status;
+	private @Embedded LineItemTotals totals;
+
+	@ElementCollection //
+	@CollectionTable(name = "line_item_archive", joinColumns = @JoinColumn(name = "order_id"), //
+			indexes = @Index(name = "ix_line_item_archive_order", columnList = "order_id")) //
+	@OrderBy("position") //
+	private List<ArchivedLineItem> lineItems = new ArrayList<>();
+
+	/**
+	 * Returns the {@link Order} as it was when archived. It is not managed, so changes to it are not persisted.
+	 */
+	Order toOrder() {
+
+		Order order = new Order(id, version, location, orderedDate, status);
+
+		lineItems.forEach(lineItem -> order.add(lineItem.toLineItem()));
+
+		return order;
+	}
+
+	@Getter
+	@Embeddable
+	@NoArgsConstructor(access = AccessLevel.PACKAGE)
+	static class ArchivedLineItem {
+
+		private Long id;
+		private Long version;
+		private String name;
+		private int quantity;
+		private Milk milk;
+		private Size size;
+		private int position;
+
+		LineItem toLineItem() {
+			return new LineItem(id, version, name, quantity, milk, size, null, 0);
+		}
+	}
+}
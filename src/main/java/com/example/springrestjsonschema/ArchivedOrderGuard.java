@@ -0,0 +1,34 @@
+package com.example.springrestjsonschema;
+
+import org.springframework.data.rest.core.annotation.HandleBeforeSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Rejects {@code PUT} and {@code PATCH} of archived {@link Order}s with {@code 409 Conflict}. {@code /orders/{id}}
+ * serves them through the {@link OrderArchiveFallback}, but saving one would merge it into {@code RBOrder} as a new
+ * {@link Order}. Transitions don't see archived {@link Order}s in the first place.
+ */
+@Component
+@RepositoryEventHandler
+class ArchivedOrderGuard {
+
+	private final EntityManager em;
+
+	ArchivedOrderGuard(EntityManager em) {
+		this.em = em;
+	}
+
+	@HandleBeforeSave
+	void rejectArchived(Order order) {
+
+		if (order.getId() != null && em.find(ArchivedOrder.class, order.getId()) != null) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT,
+					String.format("Order %s is archived and can't be changed anymore!", order.getId()));
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.rest.webmvc.config.RepositoryRestConfigurer;
+import org.springframework.data.rest.webmvc.support.DelegatingHandlerMapping;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.server.mvc.TypeConstrainedMappingJackson2HttpMessageConverter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.condition.ProducesRequestCondition;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Smile ({@code application/x-jackson-smile}) and CBOR ({@code application/cbor}) representations of the exported
+ * resources, selected by {@code Accept} and {@code Content-Type} like the JSON ones.
+ * <p>
+ * Both are rendered by copies of the {@link ObjectMapper} Spring Data REST uses for HAL, so that the
+ * {@link JacksonCustomizations.RestbucksModule}, the mixins and the ignored ids apply unchanged and the documents only
+ * differ from the HAL ones in their encoding.
+ */
+@Configuration
+class BinaryRepresentations implements RepositoryRestConfigurer {
+
+	static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+	static final MediaType APPLICATION_CBOR = MediaType.APPLICATION_CBOR;
+
+	@Override
+	public void configureHttpMessageConverters(List<HttpMessageConverter<?>> messageConverters) {
+
+		ObjectMapper hal = messageConverters.stream()
+				.filter(TypeConstrainedMappingJackson2HttpMessageConverter.class::isInstance)
+				.map(TypeConstrainedMappingJackson2HttpMessageConverter.class::cast)
+				.filter(converter -> converter.getSupportedMediaTypes().contains(MediaTypes.HAL_JSON))
+				.findFirst()
+				.map(TypeConstrainedMappingJackson2HttpMessageConverter::getObjectMapper)
+				.orElseThrow(() -> new IllegalStateException("No HAL converter registered by Spring Data REST!"));
+
+		messageConverters.add(new MappingJackson2SmileHttpMessageConverter(new FormatObjectMapper(hal, new SmileFactory())));
+		messageConverters.add(new MappingJackson2CborHttpMessageConverter(new FormatObjectMapper(hal, new CBORFactory())));
+	}
+
+	@Bean
+	static BeanPostProcessor binaryProducesPostProcessor() {
+		return new BinaryProducesPostProcessor();
+	}
+
+	/**
+	 * Spring Data REST restricts the repository resources without an explicit {@code produces} to its default media type
+	 * and {@code application/json}, which would answer a request for a binary representation with
+	 * {@code 406 Not Acceptable} before the converters are asked. Adds the binary media types to exactly those mappings.
+	 */
+	static class BinaryProducesPostProcessor implements BeanPostProcessor {
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+			if (bean instanceof DelegatingHandlerMapping) {
+				((DelegatingHandlerMapping) bean).getDelegates().stream()
+						.filter(RequestMappingHandlerMapping.class::isInstance)
+						.map(RequestMappingHandlerMapping.class::cast)
+						.forEach(BinaryProducesPostProcessor::addBinaryMediaTypes);
+			}
+
+			return bean;
+		}
+
+		private static void addBinaryMediaTypes(RequestMappingHandlerMapping mapping) {
+
+			Map<RequestMappingInfo, HandlerMethod> defaults = new LinkedHashMap<>();
+
+			mapping.getHandlerMethods().forEach((info, method) -> {
+				if (info.getProducesCondition().getProducibleMediaTypes().contains(MediaTypes.HAL_JSON)) {
+					defaults.put(info, method);
+				}
+			});
+
+			defaults.forEach((info, method) -> {
+
+				Set<String> produces = new LinkedHashSet<>();
+				info.getProducesCondition().getProducibleMediaTypes().forEach(type -> produces.add(type.toString()));
+				produces.add(APPLICATION_SMILE.toString());
+				produces.add(APPLICATION_CBOR.toString());
+
+				mapping.unregisterMapping(info);
+				mapping.registerMapping(new RequestMappingInfo(info.getName(), info.getPatternsCondition(),
+						info.getMethodsCondition(), info.getParamsCondition(), info.getHeadersCondition(),
+						info.getConsumesCondition(), new ProducesRequestCondition(produces.toArray(new String[0])),
+						info.getCustomCondition()), method.getBean(), method.getMethod());
+			});
+		}
+	}
+
+	/**
+	 * An {@link ObjectMapper} sharing the configuration, modules, mixins and handler instantiator of another one while
+	 * reading and writing through a different {@link JsonFactory}.
+	 */
+	@SuppressWarnings("serial")
+	static class FormatObjectMapper extends ObjectMapper {
+
+		FormatObjectMapper(ObjectMapper source, JsonFactory factory) {
+
+			super(factory, ((DefaultSerializerProvider) source.getSerializerProvider()).copy(),
+					((DefaultDeserializationContext) source.getDeserializationContext()).copy());
+
+			setTypeFactory(source.getTypeFactory());
+			setSubtypeResolver(source.getSubtypeResolver());
+			setInjectableValues(source.getInjectableValues());
+			setSerializerFactory(source.getSerializerFactory());
+			setConfig(source.getSerializationConfig());
+			setConfig(source.getDeserializationConfig());
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * The outcome of ingesting a single {@link Order} of a bulk submission.
+ *
+ * @see OrderIngester
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+class IngestResult {
+
+	/**
+	 * The position of the order in the submission, starting at 0.
+	 */
+	int index;
+	Status status;
+	String href;
+	String error;
+
+	static IngestResult created(int index, String href) {
+		return new IngestResult(index, Status.CREATED, href, null);
+	}
+
+	static IngestResult rejected(int index, String error) {
+		return new IngestResult(index, Status.REJECTED, null, error);
+	}
+
+	static IngestResult failed(int index, String error) {
+		return new IngestResult(index, Status.FAILED, null, error);
+	}
+
+	enum Status {
+
+		/**
+		 * The order was persisted.
+		 */
+		CREATED,
+
+		/**
+		 * The order could not be read from the submission.
+		 */
+		REJECTED,
+
+		/**
+		 * The order could not be persisted.
+		 */
+		FAILED;
+	}
+}
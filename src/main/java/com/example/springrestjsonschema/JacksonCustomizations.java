@@ -18,12 +18,26 @@ package com.example.springrestjsonschema;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.deser.ValueInstantiator;
+import com.fasterxml.jackson.databind.deser.ValueInstantiators;
+import com.fasterxml.jackson.databind.deser.std.StdValueInstantiator;
+import com.fasterxml.jackson.databind.introspect.AnnotatedConstructor;
+import com.fasterxml.jackson.databind.introspect.AnnotatedWithParams;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
 
 @Configuration
 class JacksonCustomizations {
@@ -33,12 +47,30 @@ class JacksonCustomizations {
 		return new RestbucksModule();
 	}
 
+	/**
+	 * Replaces the reflective getter, setter and field access and the default constructor calls of the bean
+	 * (de)serializers with generated bytecode. Property names and enum values are pre-encoded by the standard
+	 * serializers already. Afterburner leaves creators to the standard path, so {@link #creatorModule()} comes with it.
+	 */
+	@ConditionalOnProperty("restbucks.jackson.afterburner")
+	public @Bean
+	Module afterburnerModule() {
+		return new AfterburnerModule();
+	}
+
+	@ConditionalOnProperty("restbucks.jackson.afterburner")
+	public @Bean
+	Module creatorModule() {
+		return new CreatorModule();
+	}
+
 	@SuppressWarnings("serial")
 	static class RestbucksModule extends SimpleModule {
 
 		public RestbucksModule() {
 
 			setMixInAnnotation(Order.class, RestbucksModule.OrderMixin.class);
+			setMixInAnnotation(LineItem.class, RestbucksModule.LineItemMixin.class);
 		}
 
 		@JsonAutoDetect(isGetterVisibility = JsonAutoDetect.Visibility.NONE)
@@ -48,5 +80,104 @@ class JacksonCustomizations {
 			public OrderMixin(Collection<LineItem> lineItems, Location location) {}
 		}
 
+		static abstract class LineItemMixin {
+
+			@JsonCreator
+			public LineItemMixin(String name, int quantity, Milk milk, Size size) {}
+		}
+
+	}
+
+	/**
+	 * Calls the creators of {@link Order}, {@link LineItem} and {@link User} directly rather than through reflection.
+	 * Other types, and ours in case their creator no longer matches, keep the standard instantiator. {@link Flt} is
+	 * bound through its default constructor, which Afterburner covers.
+	 */
+	@SuppressWarnings("serial")
+	static class CreatorModule extends SimpleModule {
+
+		private static final Map<Class<?>, Creator> CREATORS = Map.of( //
+				Order.class, new Creator(args -> new Order(lineItems(args[0]), (Location) args[1]), //
+						Collection.class, Location.class), //
+				LineItem.class, new Creator(args -> new LineItem((String) args[0], (Integer) args[1], (Milk) args[2],
+						(Size) args[3]), String.class, int.class, Milk.class, Size.class), //
+				User.class, new Creator(args -> new User((String) args[0], (String) args[1]), //
+						String.class, String.class));
+
+		public CreatorModule() {
+			super("RestbucksCreators");
+		}
+
+		@Override
+		public void setupModule(SetupContext context) {
+
+			super.setupModule(context);
+
+			context.addValueInstantiators(new ValueInstantiators.Base() {
+
+				@Override
+				public ValueInstantiator findValueInstantiator(DeserializationConfig config, BeanDescription beanDesc,
+						ValueInstantiator defaultInstantiator) {
+
+					Creator creator = CREATORS.get(beanDesc.getBeanClass());
+
+					return creator != null && creator.matches(defaultInstantiator)
+							? new DirectInstantiator((StdValueInstantiator) defaultInstantiator, creator.function)
+							: defaultInstantiator;
+				}
+			});
+		}
+
+		@SuppressWarnings("unchecked")
+		private static Collection<LineItem> lineItems(Object lineItems) {
+			return (Collection<LineItem>) lineItems;
+		}
+
+		static class Creator {
+
+			private final Function<Object[], Object> function;
+			private final Class<?>[] parameterTypes;
+
+			Creator(Function<Object[], Object> function, Class<?>... parameterTypes) {
+
+				this.function = function;
+				this.parameterTypes = parameterTypes;
+			}
+
+			boolean matches(ValueInstantiator instantiator) {
+
+				if (!(instantiator instanceof StdValueInstantiator) || !instantiator.canCreateFromObjectWith()) {
+					return false;
+				}
+
+				AnnotatedWithParams creator = ((StdValueInstantiator) instantiator).getWithArgsCreator();
+
+				return creator instanceof AnnotatedConstructor
+						&& Arrays.equals(((AnnotatedConstructor) creator).getAnnotated().getParameterTypes(),
+								parameterTypes);
+			}
+		}
+
+		static class DirectInstantiator extends StdValueInstantiator {
+
+			private final Function<Object[], Object> creator;
+
+			DirectInstantiator(StdValueInstantiator instantiator, Function<Object[], Object> creator) {
+
+				super(instantiator);
+
+				this.creator = creator;
+			}
+
+			@Override
+			public Object createFromObjectWith(DeserializationContext ctxt, Object[] args) throws IOException {
+
+				try {
+					return creator.apply(args);
+				} catch (Exception o_O) {
+					throw rewrapCtorProblem(ctxt, o_O);
+				}
+			}
+		}
 	}
 }
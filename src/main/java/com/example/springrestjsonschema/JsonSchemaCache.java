@@ -0,0 +1,287 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.rest.core.mapping.ResourceMappings;
+import org.springframework.data.rest.core.mapping.ResourceMetadata;
+import org.springframework.data.rest.webmvc.json.PersistentEntityToJsonSchemaConverter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pre-serialized JSON schemas of the exported repositories, as rendered by Spring Data REST for
+ * {@code GET /profile/{repository}} with {@code Accept: application/schema+json}.
+ * <p>
+ * Schemas are keyed by domain type and locale, as the property titles are resolved through the
+ * {@link org.springframework.hateoas.mediatype.MessageResolver}. Requested locales are resolved to the ones listed in
+ * {@code restbucks.schema.locales} or the default locale, so that clients can't grow the cache with arbitrary
+ * {@code Accept-Language} values. The schemas for the default locale are built once the application is ready, the
+ * ones for any other locale on first request.
+ * <p>
+ * Before caching, the properties of the schema are aligned with the {@link PropertyModel}: {@code readOnly} follows
+ * whether the property is bound at all, properties that are bound but never rendered (e.g. {@code User.password}) are
+ * added as {@code writeOnly} and properties neither rendered nor bound are dropped. That way a client following the
+ * schema sends exactly what the request binding accepts.
+ * <p>
+ * Lookups are counted as {@code restbucks.schema.cache} by {@code entity} and {@code result} ({@code hit} or
+ * {@code miss}), generating a schema is timed as {@code restbucks.schema.generation}.
+ */
+@Slf4j
+@Component
+class JsonSchemaCache {
+
+	static final MediaType SCHEMA_JSON = MediaType.parseMediaType("application/schema+json");
+
+	private final PersistentEntityToJsonSchemaConverter converter;
+	private final ObjectMapper objectMapper;
+	private final ResourceMappings mappings;
+	private final PropertyModel model;
+	private final MeterRegistry registry;
+	private final Set<Locale> locales;
+
+	private final Map<Key, CachedSchema> schemas = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Counter> hits = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Counter> misses = new ConcurrentHashMap<>();
+	private final Map<Class<?>, Timer> generations = new ConcurrentHashMap<>();
+
+	/**
+	 * @param jacksonConverter the converter Spring Data REST renders {@code application/schema+json} with.
+	 * @param locales the locales to render schemas for besides the default one.
+	 */
+	JsonSchemaCache(PersistentEntityToJsonSchemaConverter converter,
+			@Qualifier("jacksonHttpMessageConverter") AbstractJackson2HttpMessageConverter jacksonConverter,
+			ResourceMappings mappings, PropertyModel model, MeterRegistry registry,
+			@org.springframework.beans.factory.annotation.Value("${restbucks.schema.locales:}") List<Locale> locales) {
+
+		this.converter = converter;
+		this.objectMapper = jacksonConverter.getObjectMapper();
+		this.mappings = mappings;
+		this.model = model;
+		this.registry = registry;
+		this.locales = new HashSet<>(locales);
+		this.locales.add(Locale.getDefault());
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	void warmUp() {
+
+		Locale locale = Locale.getDefault();
+
+		mappings.filter(ResourceMetadata::isExported)
+				.forEach(metadata -> getSchema(metadata.getDomainType(), locale));
+
+		log.info("Cached JSON schemas for {} with locale {}", schemas.keySet(), locale);
+	}
+
+	/**
+	 * Returns the schema of the domain type exported under the given repository path, e.g. {@code orders}.
+	 *
+	 * @param repository the path segment of the repository, must not be {@literal null}.
+	 * @param locale the locale to resolve the property titles with.
+	 * @return {@link Optional#empty()} if no repository is exported under that path.
+	 */
+	Optional<CachedSchema> getSchema(String repository, Locale locale) {
+
+		return mappings.filter(ResourceMetadata::isExported)
+				.filter(metadata -> metadata.getPath().matches(repository))
+				.get()
+				.findFirst()
+				.map(metadata -> getSchema(metadata.getDomainType(), locale));
+	}
+
+	/**
+	 * Returns the schema of the given domain type, generating and caching it on first access.
+	 */
+	CachedSchema getSchema(Class<?> domainType, Locale locale) {
+
+		Key key = new Key(domainType, resolve(locale));
+		CachedSchema schema = schemas.get(key);
+
+		if (schema != null) {
+			hits.computeIfAbsent(domainType, it -> lookups(it, "hit")).increment();
+			return schema;
+		}
+
+		return schemas.computeIfAbsent(key, it -> {
+
+			misses.computeIfAbsent(domainType, type -> lookups(type, "miss")).increment();
+
+			return generations.computeIfAbsent(domainType, type -> Timer.builder("restbucks.schema.generation")
+					.description("Generating the JSON schema of a domain type")
+					.tag("entity", type.getSimpleName())
+					.register(registry))
+					.record(() -> createSchema(it));
+		});
+	}
+
+	/**
+	 * Returns the given locale if schemas are rendered for it, else a supported locale of the same language, falling back
+	 * to the default locale.
+	 */
+	private Locale resolve(Locale locale) {
+
+		if (locales.contains(locale)) {
+			return locale;
+		}
+
+		return locales.stream()
+				.filter(it -> it.getLanguage().equals(locale.getLanguage()))
+				.min(Comparator.comparing(Locale::getCountry))
+				.orElse(Locale.getDefault());
+	}
+
+	private Counter lookups(Class<?> domainType, String result) {
+
+		return Counter.builder("restbucks.schema.cache")
+				.description("Lookups of JSON schemas")
+				.tag("entity", domainType.getSimpleName())
+				.tag("result", result)
+				.register(registry);
+	}
+
+	private CachedSchema createSchema(Key key) {
+
+		LocaleContext previous = LocaleContextHolder.getLocaleContext();
+
+		try {
+
+			LocaleContextHolder.setLocale(key.getLocale());
+
+			ObjectNode schema = objectMapper.valueToTree(converter.convert(key.getType()));
+
+			model.getModel(key.getType()).ifPresent(type -> align(schema.with("properties"), type));
+			schema.with("definitions").fields().forEachRemaining(definition -> model
+					.getModel(StringUtils.capitalize(definition.getKey()))
+					.ifPresent(type -> align(((ObjectNode) definition.getValue()).with("properties"), type)));
+
+			byte[] content = objectMapper.writeValueAsBytes(schema);
+
+			return new CachedSchema(content, "\"" + DigestUtils.md5DigestAsHex(content) + "\"");
+
+		} catch (JsonProcessingException o_O) {
+			throw new IllegalStateException(String.format("Could not render JSON schema for %s!", key.getType()), o_O);
+		} finally {
+			LocaleContextHolder.setLocaleContext(previous);
+		}
+	}
+
+	private static void align(ObjectNode properties, PropertyModel.TypeModel type) {
+
+		List<String> unknown = new ArrayList<>();
+
+		properties.fieldNames().forEachRemaining(name -> {
+			if (!type.getProperty(name).filter(it -> it.isReadable() || it.isWritable()).isPresent()) {
+				unknown.add(name);
+			}
+		});
+
+		properties.remove(unknown);
+
+		type.getProperties().values().stream()
+				.filter(property -> property.isReadable() || property.isWritable())
+				.forEach(property -> {
+
+					JsonNode existing = properties.get(property.getName());
+
+					if (existing instanceof ObjectNode) {
+						((ObjectNode) existing).put("readOnly", !property.isWritable());
+					} else {
+						properties.putObject(property.getName())
+								.put("title", toTitle(property.getName()))
+								.put("readOnly", false)
+								.put("type", toJsonType(property.getType()));
+					}
+
+					if (!property.isReadable()) {
+						properties.with(property.getName()).put("writeOnly", true);
+					}
+				});
+	}
+
+	/**
+	 * The title Spring Data REST falls back to without a message, e.g. {@code Ordered date} for {@code orderedDate}.
+	 */
+	private static String toTitle(String name) {
+
+		String[] words = StringUtils.capitalize(name).split("(?<=[a-z0-9])(?=[A-Z])");
+
+		for (int i = 1; i < words.length; i++) {
+			words[i] = words[i].toLowerCase(Locale.ENGLISH);
+		}
+
+		return String.join(" ", words);
+	}
+
+	private static String toJsonType(Class<?> type) {
+
+		if (type == boolean.class || type == Boolean.class) {
+			return "boolean";
+		}
+
+		if (type == int.class || type == long.class || type == short.class || type == byte.class
+				|| type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+			return "integer";
+		}
+
+		if (type.isPrimitive() || Number.class.isAssignableFrom(type)) {
+			return "number";
+		}
+
+		if (type.isArray() || Collection.class.isAssignableFrom(type)) {
+			return "array";
+		}
+
+		return CharSequence.class.isAssignableFrom(type) || type.isEnum() || Temporal.class.isAssignableFrom(type)
+				|| Date.class.isAssignableFrom(type) ? "string" : "object";
+	}
+
+	@Value
+	private static class Key {
+
+		Class<?> type;
+		Locale locale;
+
+		@Override
+		public String toString() {
+			return type.getSimpleName() + "/" + locale;
+		}
+	}
+
+	/**
+	 * A rendered schema along with its strong ETag.
+	 */
+	@Value
+	static class CachedSchema {
+
+		byte[] content;
+		String etag;
+	}
+}
@@ -0,0 +1,95 @@
+package com.example.springrestjsonschema;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Serves {@code GET /profile/{repository}} for {@code application/schema+json} from the {@link JsonSchemaCache}, so
+ * that repeated fetches neither regenerate nor re-serialize the schema and a matching {@code If-None-Match} is
+ * answered with {@code 304 Not Modified}. Anything the cache doesn't know about is passed on to Spring Data REST.
+ */
+@Component
+@RequiredArgsConstructor
+class JsonSchemaFilter extends OncePerRequestFilter {
+
+	private static final String PROFILE_SEGMENT = "/profile/";
+	private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
+	private final JsonSchemaCache cache;
+	private final RepositoryRestConfiguration configuration;
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !HttpMethod.GET.matches(request.getMethod()) || !acceptsSchema(request);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		Optional<JsonSchemaCache.CachedSchema> schema = getRepository(request)
+				.flatMap(repository -> cache.getSchema(repository, LocaleContextHolder.getLocale()));
+
+		if (!schema.isPresent()) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		JsonSchemaCache.CachedSchema cached = schema.get();
+
+		if (new ServletWebRequest(request, response).checkNotModified(cached.getEtag())) {
+			return;
+		}
+
+		response.setContentType(JsonSchemaCache.SCHEMA_JSON.toString());
+		response.setContentLength(cached.getContent().length);
+
+		StreamUtils.copy(cached.getContent(), response.getOutputStream());
+	}
+
+	private Optional<String> getRepository(HttpServletRequest request) {
+
+		String prefix = configuration.getBasePath().toString() + PROFILE_SEGMENT;
+		String path = PATH_HELPER.getPathWithinApplication(request);
+
+		if (!path.startsWith(prefix)) {
+			return Optional.empty();
+		}
+
+		String repository = path.substring(prefix.length());
+
+		return repository.isEmpty() || repository.contains("/") ? Optional.empty() : Optional.of(repository);
+	}
+
+	private static boolean acceptsSchema(HttpServletRequest request) {
+
+		String accept = request.getHeader(HttpHeaders.ACCEPT);
+
+		if (accept == null) {
+			return false;
+		}
+
+		try {
+			return MediaType.parseMediaTypes(accept).stream().anyMatch(JsonSchemaCache.SCHEMA_JSON::equalsTypeAndSubtype);
+		} catch (InvalidMediaTypeException o_O) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,322 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.core.mapping.ResourceMappings;
+import org.springframework.data.rest.core.mapping.ResourceMetadata;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Validates JSON request bodies creating ({@code POST /{repository}}) or updating ({@code PUT} and {@code PATCH} of
+ * {@code /{repository}/{id}}) an exported resource against its schema before Spring Data REST binds the entity. All
+ * violations of a body are answered in a single {@code 400 Bad Request} in the format Spring Data REST uses for
+ * validation errors, anything else is passed on with the buffered body. The {@link BinaryRepresentations} are validated
+ * the same way, as their parsers produce the same tokens.
+ * <p>
+ * The schemas are taken from the {@link JsonSchemaCache} and compiled into {@link JsonSchemaValidator}s once per
+ * domain type, the ones of the exported repositories when the application is ready. JSON Patch documents describe
+ * operations rather than the resource and are not validated.
+ * <p>
+ * Bodies are buffered up to {@code restbucks.validation.max-body-size}, larger ones are answered with
+ * {@code 413 Payload Too Large} before reading them any further.
+ */
+@Slf4j
+@Component
+class JsonSchemaValidationFilter extends OncePerRequestFilter {
+
+	private static final MediaType JSON_PATCH = MediaType.parseMediaType("application/json-patch+json");
+	private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+	private static final JsonFactory SMILE = new SmileFactory();
+	private static final JsonFactory CBOR = new CBORFactory();
+
+	private final JsonSchemaCache cache;
+	private final ResourceMappings mappings;
+	private final RepositoryRestConfiguration configuration;
+	private final ObjectMapper objectMapper;
+	private final int maxErrors;
+	private final long maxBodySize;
+
+	private final Map<Class<?>, JsonSchemaValidator> validators = new ConcurrentHashMap<>();
+
+	/**
+	 * @param jacksonConverter the converter to parse the schemas and render violations with.
+	 * @param maxErrors the number of violations after which a body is no longer read.
+	 * @param maxBodySize the size up to which bodies are buffered to be validated.
+	 */
+	JsonSchemaValidationFilter(JsonSchemaCache cache, ResourceMappings mappings, RepositoryRestConfiguration configuration,
+			@Qualifier("jacksonHttpMessageConverter") AbstractJackson2HttpMessageConverter jacksonConverter,
+			@Value("${restbucks.validation.max-errors:50}") int maxErrors,
+			@Value("${restbucks.validation.max-body-size:1MB}") DataSize maxBodySize) {
+
+		this.cache = cache;
+		this.mappings = mappings;
+		this.configuration = configuration;
+		this.objectMapper = jacksonConverter.getObjectMapper();
+		this.maxErrors = maxErrors;
+		this.maxBodySize = maxBodySize.toBytes();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	void compileValidators() {
+
+		mappings.filter(ResourceMetadata::isExported)
+				.forEach(metadata -> getValidator(metadata.getDomainType()));
+
+		log.info("Compiled JSON schema validators for {}", validators.keySet());
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+
+		HttpMethod method = HttpMethod.resolve(request.getMethod());
+
+		return method != HttpMethod.POST && method != HttpMethod.PUT && method != HttpMethod.PATCH
+				|| !getFactory(request.getContentType()).isPresent();
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		boolean create = HttpMethod.POST.matches(request.getMethod());
+		Optional<Class<?>> domainType = getDomainType(request, create);
+
+		if (!domainType.isPresent()) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		Optional<byte[]> body = readBody(request);
+
+		if (!body.isPresent()) {
+			response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+			return;
+		}
+
+		List<JsonSchemaValidator.Violation> violations;
+
+		try (JsonParser parser = getFactory(request.getContentType()).get().createParser(body.get())) {
+			violations = getValidator(domainType.get()).validate(parser, create, maxErrors);
+		}
+
+		if (violations.isEmpty()) {
+			chain.doFilter(new CachedBodyRequest(request, body.get()), response);
+			return;
+		}
+
+		response.setStatus(HttpStatus.BAD_REQUEST.value());
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+		objectMapper.writeValue(response.getOutputStream(), Collections.singletonMap("errors", violations));
+	}
+
+	/**
+	 * Buffers the body of the given request, {@link Optional#empty()} as soon as it turns out to exceed the maximum body
+	 * size.
+	 */
+	private Optional<byte[]> readBody(HttpServletRequest request) throws IOException {
+
+		long contentLength = request.getContentLengthLong();
+
+		if (contentLength > maxBodySize) {
+			return Optional.empty();
+		}
+
+		ByteArrayOutputStream body = new ByteArrayOutputStream(
+				contentLength < 0 ? StreamUtils.BUFFER_SIZE : (int) contentLength);
+		InputStream stream = request.getInputStream();
+		byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+
+		for (int read = stream.read(buffer); read != -1; read = stream.read(buffer)) {
+
+			if (body.size() + read > maxBodySize) {
+				return Optional.empty();
+			}
+
+			body.write(buffer, 0, read);
+		}
+
+		return Optional.of(body.toByteArray());
+	}
+
+	private JsonSchemaValidator getValidator(Class<?> domainType) {
+
+		return validators.computeIfAbsent(domainType, type -> {
+
+			try {
+				return JsonSchemaValidator.compile(type.getSimpleName(),
+						objectMapper.readTree(cache.getSchema(type, Locale.getDefault()).getContent()));
+			} catch (IOException o_O) {
+				throw new IllegalStateException(String.format("Could not compile JSON schema of %s!", type), o_O);
+			}
+		});
+	}
+
+	/**
+	 * Returns the domain type of the exported collection resource ({@code create}) or item resource (otherwise) the
+	 * request targets.
+	 */
+	private Optional<Class<?>> getDomainType(HttpServletRequest request, boolean create) {
+
+		String prefix = configuration.getBasePath().toString() + "/";
+		String path = PATH_HELPER.getPathWithinApplication(request);
+
+		if (!path.startsWith(prefix)) {
+			return Optional.empty();
+		}
+
+		String[] segments = path.substring(prefix.length()).split("/", -1);
+
+		if (segments.length != (create ? 1 : 2) || segments[segments.length - 1].isEmpty()) {
+			return Optional.empty();
+		}
+
+		return mappings.filter(ResourceMetadata::isExported)
+				.filter(metadata -> metadata.getPath().matches(segments[0]))
+				.get()
+				.findFirst()
+				.map(ResourceMetadata::getDomainType);
+	}
+
+	/**
+	 * Returns the factory to parse bodies of the given content type with, {@link Optional#empty()} for anything but JSON
+	 * and the binary representations.
+	 */
+	private Optional<JsonFactory> getFactory(String contentType) {
+
+		if (contentType == null) {
+			return Optional.empty();
+		}
+
+		try {
+
+			MediaType mediaType = MediaType.parseMediaType(contentType);
+
+			if (mediaType.isCompatibleWith(BinaryRepresentations.APPLICATION_SMILE)) {
+				return Optional.of(SMILE);
+			}
+
+			if (mediaType.isCompatibleWith(BinaryRepresentations.APPLICATION_CBOR)) {
+				return Optional.of(CBOR);
+			}
+
+			return !mediaType.isCompatibleWith(JSON_PATCH) && (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)
+					|| mediaType.getSubtype().endsWith("+json")) ? Optional.of(objectMapper.getFactory()) : Optional.empty();
+
+		} catch (InvalidMediaTypeException o_O) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Replays a body that has already been read.
+	 */
+	private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+		private final byte[] body;
+
+		CachedBodyRequest(HttpServletRequest request, byte[] body) {
+
+			super(request);
+
+			this.body = body;
+		}
+
+		@Override
+		public ServletInputStream getInputStream() {
+
+			ByteArrayInputStream stream = new ByteArrayInputStream(body);
+
+			return new ServletInputStream() {
+
+				@Override
+				public boolean isFinished() {
+					return stream.available() == 0;
+				}
+
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+
+				/**
+				 * The whole body is available right away, so the listener is told so and that it has been read at once.
+				 */
+				@Override
+				public void setReadListener(ReadListener listener) {
+
+					try {
+
+						if (!isFinished()) {
+							listener.onDataAvailable();
+						}
+
+						listener.onAllDataRead();
+
+					} catch (IOException o_O) {
+						listener.onError(o_O);
+					}
+				}
+
+				@Override
+				public int read() {
+					return stream.read();
+				}
+
+				@Override
+				public int read(byte[] buffer, int offset, int length) {
+					return stream.read(buffer, offset, length);
+				}
+			};
+		}
+
+		@Override
+		public BufferedReader getReader() {
+
+			String encoding = getCharacterEncoding();
+			Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+
+			return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+		}
+	}
+}
@@ -0,0 +1,330 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A JSON schema as rendered by {@link JsonSchemaCache}, compiled into rules that check a request body token by token,
+ * i.e. without building a tree or binding the entity.
+ * <p>
+ * Only the subset of JSON schema Spring Data REST generates is supported: {@code properties}, {@code type},
+ * {@code enum}, {@code readOnly}, {@code items} and local {@code $ref}s into {@code definitions}. Properties not
+ * declared by the schema are rejected, as are read-only ones when creating a resource. {@literal null} is accepted for
+ * any property, as it is by the binding. The HAL {@code _links} and {@code _embedded} of a representation sent back as
+ * read are skipped on any level, as Spring Data REST ignores them when binding.
+ */
+@RequiredArgsConstructor
+class JsonSchemaValidator {
+
+	private static final Set<String> HAL_PROPERTIES = Collections.unmodifiableSet(
+			new LinkedHashSet<>(Arrays.asList("_links", "_embedded")));
+
+	private final String entity;
+	private final ObjectRule root;
+
+	/**
+	 * Compiles the given schema of the given entity, e.g. {@code Order}.
+	 */
+	static JsonSchemaValidator compile(String entity, JsonNode schema) {
+		return new JsonSchemaValidator(entity, new Compiler(schema.path("definitions")).compileObject(schema));
+	}
+
+	/**
+	 * Validates the document the given parser is positioned before.
+	 *
+	 * @param create whether the document creates a resource, which rejects read-only properties.
+	 * @param maxErrors the number of violations after which validation stops.
+	 * @return all violations found, in document order, never {@literal null}.
+	 */
+	List<Violation> validate(JsonParser parser, boolean create, int maxErrors) throws IOException {
+
+		Validation validation = new Validation(parser, create, maxErrors);
+
+		try {
+
+			parser.nextToken();
+			validation.validateObject(root);
+
+		} catch (JsonProcessingException o_O) {
+
+			JsonLocation location = o_O.getLocation();
+			validation.violations.add(new Violation(entity, null, null, String.format("malformed JSON at line %d, column %d",
+					location == null ? -1 : location.getLineNr(), location == null ? -1 : location.getColumnNr())));
+
+		} catch (TooManyViolations o_O) {
+			// stop reading the rest of the document
+		}
+
+		return validation.violations;
+	}
+
+	@RequiredArgsConstructor
+	private class Validation {
+
+		private final JsonParser parser;
+		private final boolean create;
+		private final int maxErrors;
+		private final List<Violation> violations = new ArrayList<>();
+
+		/**
+		 * The property names and array indexes leading to the current value, only rendered for violations.
+		 */
+		private final Deque<Object> path = new ArrayDeque<>();
+
+		void validateObject(ObjectRule rule) throws IOException {
+
+			if (parser.currentToken() != JsonToken.START_OBJECT) {
+				reject("must be an object");
+				return;
+			}
+
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+
+				String name = parser.getCurrentName();
+				PropertyRule propertyRule = rule.getProperties().get(name);
+
+				parser.nextToken();
+
+				if (propertyRule == null && HAL_PROPERTIES.contains(name)) {
+					parser.skipChildren();
+					continue;
+				}
+
+				path.addLast(name);
+
+				if (propertyRule == null) {
+					reject("is not a known property");
+				} else if (propertyRule.isReadOnly() && create) {
+					reject("is read-only");
+				} else {
+					validateValue(propertyRule);
+				}
+
+				path.removeLast();
+			}
+		}
+
+		private void validateValue(PropertyRule rule) throws IOException {
+
+			JsonToken token = parser.currentToken();
+
+			if (token == JsonToken.VALUE_NULL || rule.getType() == null) {
+				parser.skipChildren();
+				return;
+			}
+
+			switch (rule.getType()) {
+
+				case "string":
+					if (token != JsonToken.VALUE_STRING) {
+						reject("must be a string");
+					} else if (!rule.getValues().isEmpty() && !rule.getValues().contains(parser.getText())) {
+						reject("must be one of " + rule.getValues());
+					}
+					return;
+
+				case "integer":
+					if (token != JsonToken.VALUE_NUMBER_INT) {
+						reject("must be an integer");
+					}
+					return;
+
+				case "number":
+					if (!token.isNumeric()) {
+						reject("must be a number");
+					}
+					return;
+
+				case "boolean":
+					if (!token.isBoolean()) {
+						reject("must be a boolean");
+					}
+					return;
+
+				case "array":
+					if (token != JsonToken.START_ARRAY) {
+						reject("must be an array");
+						return;
+					}
+
+					for (int index = 0; parser.nextToken() != JsonToken.END_ARRAY; index++) {
+						if (rule.getItems() == null) {
+							parser.skipChildren();
+						} else {
+							path.addLast(index);
+							validateValue(rule.getItems());
+							path.removeLast();
+						}
+					}
+					return;
+
+				case "object":
+					if (rule.getObject() != null) {
+						validateObject(rule.getObject());
+					} else if (token != JsonToken.START_OBJECT) {
+						reject("must be an object");
+					} else {
+						parser.skipChildren();
+					}
+					return;
+
+				default:
+					parser.skipChildren();
+			}
+		}
+
+		private void reject(String message) throws IOException {
+
+			JsonToken token = parser.currentToken();
+
+			violations.add(new Violation(entity, renderPath(),
+					token != null && token.isScalarValue() ? parser.getText() : null, message));
+
+			if (violations.size() >= maxErrors) {
+				throw new TooManyViolations();
+			}
+
+			parser.skipChildren();
+		}
+
+		/**
+		 * Renders the current path like {@code lineItems[1].milk}, {@literal null} for the document itself.
+		 */
+		private String renderPath() {
+
+			if (path.isEmpty()) {
+				return null;
+			}
+
+			StringBuilder builder = new StringBuilder();
+
+			for (Object segment : path) {
+				if (segment instanceof Integer) {
+					builder.append('[').append(segment).append(']');
+				} else {
+					builder.append(builder.length() == 0 ? "" : ".").append(segment);
+				}
+			}
+
+			return builder.toString();
+		}
+	}
+
+	/**
+	 * A single violation, rendered like Spring Data REST renders bean validation errors.
+	 */
+	@Value
+	static class Violation {
+
+		String entity;
+		String property;
+		String invalidValue;
+		String message;
+	}
+
+	@Value
+	private static class ObjectRule {
+		Map<String, PropertyRule> properties;
+	}
+
+	/**
+	 * {@code object} is set for {@code object} properties with a known schema, {@code items} for arrays.
+	 */
+	@Value
+	private static class PropertyRule {
+
+		String type;
+		Set<String> values;
+		boolean readOnly;
+		PropertyRule items;
+		ObjectRule object;
+	}
+
+	@RequiredArgsConstructor
+	private static class Compiler {
+
+		private static final String DEFINITIONS = "#/definitions/";
+
+		private final JsonNode definitions;
+		private final Map<String, ObjectRule> compiled = new HashMap<>();
+
+		ObjectRule compileObject(JsonNode schema) {
+
+			Map<String, PropertyRule> properties = new LinkedHashMap<>();
+			compileProperties(schema, properties);
+
+			return new ObjectRule(Collections.unmodifiableMap(properties));
+		}
+
+		private void compileProperties(JsonNode schema, Map<String, PropertyRule> properties) {
+
+			schema.path("properties").fields()
+					.forEachRemaining(property -> properties.put(property.getKey(), compileProperty(property.getValue())));
+		}
+
+		private PropertyRule compileProperty(JsonNode property) {
+
+			String reference = property.path("$ref").asText();
+
+			if (reference.startsWith(DEFINITIONS)) {
+				return new PropertyRule("object", Collections.emptySet(), property.path("readOnly").asBoolean(), null,
+						compileDefinition(reference.substring(DEFINITIONS.length())));
+			}
+
+			Set<String> values = new LinkedHashSet<>();
+			property.path("enum").forEach(value -> values.add(value.asText()));
+
+			String type = property.hasNonNull("type") ? property.get("type").asText() : null;
+			JsonNode items = property.get("items");
+
+			return new PropertyRule(type, Collections.unmodifiableSet(values), property.path("readOnly").asBoolean(),
+					items == null ? null : compileProperty(items),
+					"object".equals(type) && property.has("properties") ? compileObject(property) : null);
+		}
+
+		/**
+		 * Compiles each definition once, also when referenced from several properties or from itself.
+		 */
+		private ObjectRule compileDefinition(String name) {
+
+			ObjectRule rule = compiled.get(name);
+
+			if (rule == null) {
+
+				Map<String, PropertyRule> properties = new LinkedHashMap<>();
+				rule = new ObjectRule(Collections.unmodifiableMap(properties));
+
+				compiled.put(name, rule);
+				compileProperties(definitions.path(name), properties);
+			}
+
+			return rule;
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class TooManyViolations extends RuntimeException {
+
+		TooManyViolations() {
+			super(null, null, false, false);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.example.springrestjsonschema;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.rest.webmvc.BasePathAwareController;
+import org.springframework.data.rest.webmvc.support.RepositoryEntityLinks;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Lets barista stations claim the next paid {@link Order} with {@code POST /kitchen/claims}, answered with the claimed
+ * {@link Order}'s transition or {@code 204 No Content} if there's nothing to prepare.
+ *
+ * @see KitchenQueue
+ */
+@BasePathAwareController
+@RequiredArgsConstructor
+class KitchenController {
+
+	private final KitchenQueue queue;
+	private final RepositoryEntityLinks entityLinks;
+
+	@GetMapping("/kitchen")
+	ResponseEntity<Map<String, Integer>> status() {
+		return ResponseEntity.ok(Collections.singletonMap("queued", queue.size()));
+	}
+
+	@PostMapping("/kitchen/claims")
+	ResponseEntity<EntityModel<TransitionResult>> claim() {
+
+		return queue.claim()
+				.map(result -> new EntityModel<>(result,
+						entityLinks.linkToItemResource(Order.class, result.getId()).expand().withRel("order")))
+				.map(ResponseEntity::ok)
+				.orElseGet(() -> ResponseEntity.noContent().build());
+	}
+}
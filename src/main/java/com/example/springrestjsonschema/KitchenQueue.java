@@ -0,0 +1,130 @@
+package com.example.springrestjsonschema;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The ids of the {@link Order}s waiting to be prepared, i.e. the ones in {@link Order.Status#PAID}, in the order they
+ * were paid. It's filled from the database once the application is ready and then kept up to date through
+ * {@link OrderStatusChanged} events, so that baristas don't have to query for work.
+ * <p>
+ * The queue may hold ids of {@link Order}s that have moved on by other means in the meantime, {@link #claim()}
+ * skips those.
+ *
+ * @see OrderTransitions
+ */
+@Slf4j
+@Component
+class KitchenQueue {
+
+	private final OrderRepository orders;
+	private final OrderTransitions transitions;
+
+	private final Queue<Long> queue = new ConcurrentLinkedQueue<>();
+	private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+	KitchenQueue(OrderRepository orders, OrderTransitions transitions) {
+
+		this.orders = orders;
+		this.transitions = transitions;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	void rebuild() {
+
+		orders.findIdsByStatus(Order.Status.PAID).forEach(this::offer);
+
+		log.info("Queued {} paid orders for the kitchen.", queued.size());
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(OrderStatusChanged event) {
+
+		if (event.getStatus() == Order.Status.PAID && event.getOrderId() != null) {
+			offer(event.getOrderId());
+		}
+	}
+
+	/**
+	 * Hands the oldest paid {@link Order} to the caller by moving it into {@link Order.Status#PREPARING}. Every
+	 * {@link Order} is handed out once, no matter how many callers claim concurrently. {@link Order}s that couldn't be
+	 * moved because they kept changing concurrently or the transition failed are queued again for a later claim, only the
+	 * ones that moved on or are gone are dropped.
+	 *
+	 * @return the result of the transition, {@link Optional#empty()} if there's no {@link Order} to prepare.
+	 */
+	Optional<TransitionResult> claim() {
+
+		List<Long> conflicting = new ArrayList<>();
+
+		try {
+
+			for (Long id = poll(); id != null; id = poll()) {
+
+				TransitionResult result;
+
+				try {
+					result = transitions.transition(id, Order.Status.PREPARING);
+				} catch (RuntimeException o_O) {
+					offer(id);
+					throw o_O;
+				}
+
+				if (result.getOutcome() == TransitionResult.Outcome.TRANSITIONED) {
+					return Optional.of(result);
+				}
+
+				if (result.getOutcome() == TransitionResult.Outcome.CONFLICT) {
+
+					log.debug("Requeueing order {} that kept changing concurrently.", id);
+					conflicting.add(id);
+
+				} else {
+					log.debug("Skipping order {} that is no longer waiting to be prepared: {}.", id, result);
+				}
+			}
+
+			return Optional.empty();
+
+		} finally {
+			// after the loop, so that this claim doesn't pick them up again
+			conflicting.forEach(this::offer);
+		}
+	}
+
+	/**
+	 * Returns the number of {@link Order}s waiting to be claimed.
+	 */
+	int size() {
+		return queued.size();
+	}
+
+	private void offer(Long id) {
+
+		if (queued.add(id)) {
+			queue.offer(id);
+		}
+	}
+
+	private Long poll() {
+
+		Long id = queue.poll();
+
+		if (id != null) {
+			queued.remove(id);
+		}
+
+		return id;
+	}
+}
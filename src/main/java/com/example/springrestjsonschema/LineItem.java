@@ -16,34 +16,75 @@
 package com.example.springrestjsonschema;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
-import org.dom4j.tree.AbstractEntity;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.springframework.data.rest.core.annotation.RestResource;
 
 import javax.persistence.*;
 
 /**
- * A line item.
+ * A line item. It references its {@link Order} and stores its position within it, so that adding or removing a
+ * {@link LineItem} only touches its own row.
  * 
  * @author Oliver Gierke
  */
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NoArgsConstructor(force = true)
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = false)
-public class LineItem extends AbstractEntity {
+@Table(indexes = @Index(name = "ix_line_item_order_position", columnList = "order_id, position"))
+public class LineItem {
 
-	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO) @JsonIgnore
+	@Id @JsonIgnore
+	@GeneratedValue(generator = "line_item_id")
+	@GenericGenerator(name = "line_item_id", strategy = PooledSequenceGenerator.STRATEGY,
+			parameters = @Parameter(name = "sequence_name", value = "line_item_seq"))
 	private Long id;
-	private @Version
+	private @Version @JsonIgnore
 	Long version;
 
 	private final String name;
 	private final int quantity;
 	private final Milk milk;
 	private final Size size;
+
+	/**
+	 * Not an association of the representation, which would otherwise render the {@link Order} along with each of its
+	 * {@link LineItem}s.
+	 */
+	@JsonIgnore
+	@RestResource(exported = false)
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "order_id")
+	@Setter(AccessLevel.NONE) @ToString.Exclude @EqualsAndHashCode.Exclude
+	private Order order;
+
+	@JsonIgnore
+	@Setter(AccessLevel.NONE) @EqualsAndHashCode.Exclude
+	private int position;
+
+	public LineItem(String name, int quantity, Milk milk, Size size) {
+		this(null, null, name, quantity, milk, size, null, 0);
+	}
+
+	/**
+	 * Assigns the {@link LineItem} to the given {@link Order} at the given position, see {@link Order#add(LineItem)}.
+	 */
+	void attachTo(Order order, int position) {
+
+		this.order = order;
+		this.position = position;
+	}
 }
@@ -0,0 +1,63 @@
+package com.example.springrestjsonschema;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+/**
+ * The aggregates of the {@link LineItem}s of an {@link Order}, stored with the {@link Order} so that summaries and
+ * searches don't need to read the line items. {@code lineItems} counts the {@link LineItem}s, all other values are
+ * quantities, i.e. the number of drinks ordered overall and per {@link Size} and {@link Milk}.
+ * <p>
+ * Kept up to date by {@link Order#add(LineItem)} and {@link Order#remove(LineItem)}, so they're written along with the
+ * version of the {@link Order} in the same transaction as the {@link LineItem}s.
+ */
+@Getter
+@Embeddable
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PACKAGE)
+public class LineItemTotals {
+
+	private @Column(name = "total_line_items") int lineItems;
+	private @Column(name = "total_quantity") int quantity;
+	private @Column(name = "total_small") int small;
+	private @Column(name = "total_large") int large;
+	private @Column(name = "total_whole") int whole;
+	private @Column(name = "total_semi") int semi;
+
+	void add(LineItem lineItem) {
+		apply(lineItem, 1);
+	}
+
+	void remove(LineItem lineItem) {
+		apply(lineItem, -1);
+	}
+
+	private void apply(LineItem lineItem, int sign) {
+
+		int quantity = sign * lineItem.getQuantity();
+
+		this.lineItems += sign;
+		this.quantity += quantity;
+
+		if (lineItem.getSize() == Size.SMALL) {
+			this.small += quantity;
+		} else if (lineItem.getSize() == Size.LARGE) {
+			this.large += quantity;
+		}
+
+		if (lineItem.getMilk() == Milk.WHOLE) {
+			this.whole += quantity;
+		} else if (lineItem.getMilk() == Milk.SEMI) {
+			this.semi += quantity;
+		}
+	}
+}
@@ -20,12 +20,20 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.Parameter;
+import org.springframework.data.domain.AbstractAggregateRoot;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * An order.
@@ -35,21 +43,42 @@ import java.util.List;
 @Entity
 @Getter @AllArgsConstructor
 @ToString(exclude = "lineItems")
-@Table(name = "RBOrder")
-public class Order {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "RBOrder", indexes = { //
+		@Index(name = "ix_rborder_status_ordered_date", columnList = "status, orderedDate, id"), //
+		@Index(name = "ix_rborder_ordered_date", columnList = "orderedDate, id") })
+@NamedEntityGraph(name = Order.WITH_LINE_ITEMS, attributeNodes = @NamedAttributeNode("lineItems"))
+public class Order extends AbstractAggregateRoot<Order> {
 
-	@Id @GeneratedValue(strategy = GenerationType.AUTO) @JsonIgnore
+	/**
+	 * Name of the entity graph fetching the {@link LineItem}s along with the {@link Order}, for lookups of a single
+	 * {@link Order}. Pages of {@link Order}s rely on the batch fetching of {@link #getLineItems()} instead, as a
+	 * collection fetch can't be paged in the database.
+	 */
+	public static final String WITH_LINE_ITEMS = "Order.lineItems";
+
+	@Id @JsonIgnore
+	@GeneratedValue(generator = "rborder_id")
+	@GenericGenerator(name = "rborder_id", strategy = PooledSequenceGenerator.STRATEGY,
+			parameters = @Parameter(name = "sequence_name", value = "rborder_seq"))
 	private Long id;
 	private @Version Long version;
 	private final Location location;
 	private final LocalDateTime orderedDate;
 	private Status status;
 
-	@OrderColumn //
-	@Column(unique = true) //
-	@OneToMany(cascade = CascadeType.ALL, orphanRemoval = true) //
+	@OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true) //
+	@OrderBy("position") //
+	@OptimisticLock(excluded = false) //
+	@BatchSize(size = 100) //
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) //
 	private final List<LineItem> lineItems = new ArrayList<>();
 
+	@JsonIgnore //
+	@Embedded //
+	private final LineItemTotals totals = new LineItemTotals();
+
 	/**
 	 * Creates a new {@link Order} for the given {@link LineItem}s and {@link Location}.
 	 * 
@@ -59,8 +88,9 @@ public class Order {
 	public Order(Collection<LineItem> lineItems, Location location) {
 		this.location = location == null ? Location.TAKE_AWAY : location;
 		this.status = Status.PAYMENT_EXPECTED;
-		this.lineItems.addAll(lineItems);
 		this.orderedDate = LocalDateTime.now();
+
+		lineItems.forEach(this::add);
 	}
 
 	/**
@@ -77,32 +107,54 @@ public class Order {
 	}
 
 	/**
-	 * Marks the {@link Order} as payed.
+	 * Appends the given {@link LineItem} to the {@link Order}. The position of the {@link LineItem} is stored with it and
+	 * the ones of the {@link LineItem}s already present are left untouched, so only the new one is inserted on flush.
+	 *
+	 * @param lineItem must not be {@literal null}.
 	 */
-	public Order markPaid() {
+	public Order add(LineItem lineItem) {
 
-		if (isPaid()) {
-			throw new IllegalStateException("Already paid order cannot be paid again!");
-		}
+		int position = lineItems.isEmpty() ? 0 : lineItems.get(lineItems.size() - 1).getPosition() + 1;
 
-		this.status = Status.PAID;
+		lineItem.attachTo(this, position);
+		lineItems.add(lineItem);
+		totals.add(lineItem);
 
 		return this;
 	}
 
 	/**
-	 * Marks the {@link Order} as in preparation.
+	 * Removes the given {@link LineItem} instance from the {@link Order}, which deletes only its row on flush. The
+	 * {@link LineItem}s following it keep their positions.
+	 *
+	 * @return whether the {@link LineItem} was part of the {@link Order}.
 	 */
-	public Order markInPreparation() {
+	public boolean remove(LineItem lineItem) {
 
-		if (this.status != Status.PAID) {
-			throw new IllegalStateException(
-					String.format("Order must be in state payed to start preparation! Current status: %s", this.status));
+		if (!lineItems.removeIf(candidate -> candidate == lineItem)) {
+			return false;
 		}
 
-		this.status = Status.PREPARING;
+		totals.remove(lineItem);
 
-		return this;
+		return true;
+	}
+
+	/**
+	 * Marks the {@link Order} as payed.
+	 */
+	public Order markPaid() {
+
+		return transitionTo(Status.PAID, "Already paid order cannot be paid again!");
+	}
+
+	/**
+	 * Marks the {@link Order} as in preparation.
+	 */
+	public Order markInPreparation() {
+
+		return transitionTo(Status.PREPARING,
+				"Order must be in state payed to start preparation! Current status: %s");
 	}
 
 	/**
@@ -110,24 +162,51 @@ public class Order {
 	 */
 	public Order markPrepared() {
 
-		if (this.status != Status.PREPARING) {
-			throw new IllegalStateException(String
-					.format("Cannot mark Order prepared that is currently not preparing! Current status: %s.", this.status));
-		}
+		return transitionTo(Status.READY,
+				"Cannot mark Order prepared that is currently not preparing! Current status: %s.");
+	}
 
-		this.status = Status.READY;
+	public Order markTaken() {
 
-		return this;
+		return transitionTo(Status.TAKEN, "Cannot mark Order taken that is currently not paid! Current status: %s.");
 	}
 
-	public Order markTaken() {
+	/**
+	 * Moves the {@link Order} into the given {@link Status} if it currently is in the one
+	 * {@link Status#getPrecondition()} requires.
+	 *
+	 * @see OrderTransitions
+	 */
+	Order transitionTo(Status status) {
+		return transitionTo(status, "Cannot move Order into " + status + "! Current status: %s.");
+	}
 
-		if (this.status != Status.READY) {
-			throw new IllegalStateException(
-					String.format("Cannot mark Order taken that is currently not paid! Current status: %s.", this.status));
+	/**
+	 * Moves the {@link Order} into the given {@link Status} if it currently is in the one
+	 * {@link Status#getPrecondition()} requires.
+	 *
+	 * @param message the message of the {@link IllegalStateException} thrown otherwise, formatted with the current
+	 *          {@link Status}.
+	 */
+	private Order transitionTo(Status status, String message) {
+
+		if (!status.getPrecondition().filter(this.status::equals).isPresent()) {
+			throw new IllegalStateException(String.format(message, this.status));
 		}
 
-		this.status = Status.TAKEN;
+		return changeStatus(status);
+	}
+
+	/**
+	 * Moves the {@link Order} into the given {@link Status} and registers an {@link OrderStatusChanged} to be published
+	 * once it's saved.
+	 */
+	private Order changeStatus(Status status) {
+
+		Status previous = this.status;
+
+		this.status = status;
+		registerEvent(new OrderStatusChanged(id, previous, status));
 
 		return this;
 	}
@@ -185,5 +264,27 @@ public class Order {
 		 * The {@link Order} was completed.
 		 */
 		TAKEN;
+
+		/**
+		 * Returns the {@link Status} an {@link Order} has to be in to transition into this one. The only definition of the
+		 * transition rules, checked by the {@code mark…} methods of {@link Order} and by {@link OrderTransitions}.
+		 *
+		 * @return {@link Optional#empty()} for {@link #PAYMENT_EXPECTED}, which no {@link Order} transitions into.
+		 */
+		public Optional<Status> getPrecondition() {
+
+			switch (this) {
+				case PAID:
+					return Optional.of(PAYMENT_EXPECTED);
+				case PREPARING:
+					return Optional.of(PAID);
+				case READY:
+					return Optional.of(PREPARING);
+				case TAKEN:
+					return Optional.of(READY);
+				default:
+					return Optional.empty();
+			}
+		}
 	}
 }
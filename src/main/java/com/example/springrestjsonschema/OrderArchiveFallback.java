@@ -0,0 +1,28 @@
+package com.example.springrestjsonschema;
+
+import java.util.Optional;
+
+/**
+ * Looks up {@link Order}s by id in {@code RBOrder} and, if not found there, among the ones the {@link OrderArchiver}
+ * moved into the archive. Part of {@link OrderRepository}, so {@code /orders/{id}} serves archived {@link Order}s as
+ * well.
+ */
+public interface OrderArchiveFallback {
+
+	/**
+	 * Returns the {@link Order} with the given id. Unless cached, it's fetched along with its line items, see
+	 * {@link Order#WITH_LINE_ITEMS}. Archived {@link Order}s are returned unmanaged and must not be saved, see
+	 * {@link ArchivedOrderGuard}.
+	 *
+	 * @param id must not be {@literal null}.
+	 */
+	Optional<Order> findById(Long id);
+
+	/**
+	 * Deletes the {@link Order} with the given id, whether archived or not.
+	 *
+	 * @param id must not be {@literal null}.
+	 * @throws org.springframework.dao.EmptyResultDataAccessException if there's no such {@link Order}.
+	 */
+	void deleteById(Long id);
+}
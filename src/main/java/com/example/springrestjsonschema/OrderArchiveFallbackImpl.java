@@ -0,0 +1,54 @@
+package com.example.springrestjsonschema;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+class OrderArchiveFallbackImpl implements OrderArchiveFallback {
+
+	private final EntityManager em;
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<Order> findById(Long id) {
+
+		// a cached Order is looked up from the second-level cache, the entity graph only applies to queries
+		Optional<Order> order = em.getEntityManagerFactory().getCache().contains(Order.class, id)
+				? Optional.ofNullable(em.find(Order.class, id))
+				: em.createQuery("select o from Order o where o.id = :id", Order.class)
+						.setParameter("id", id)
+						.setHint("javax.persistence.loadgraph", em.getEntityGraph(Order.WITH_LINE_ITEMS))
+						.getResultStream()
+						.findFirst();
+
+		if (order.isPresent()) {
+			return order;
+		}
+
+		return em.createQuery("select o from ArchivedOrder o left join fetch o.lineItems where o.id = :id",
+				ArchivedOrder.class)
+				.setParameter("id", id)
+				.getResultStream()
+				.findFirst()
+				.map(ArchivedOrder::toOrder);
+	}
+
+	@Override
+	@Transactional
+	public void deleteById(Long id) {
+
+		Object order = Optional.<Object> ofNullable(em.find(Order.class, id))
+				.orElseGet(() -> em.find(ArchivedOrder.class, id));
+
+		if (order == null) {
+			throw new EmptyResultDataAccessException(
+					String.format("No %s entity with id %s exists!", Order.class, id), 1);
+		}
+
+		em.remove(order);
+	}
+}
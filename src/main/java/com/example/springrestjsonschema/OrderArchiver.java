@@ -0,0 +1,119 @@
+package com.example.springrestjsonschema;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.NativeQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves the {@link Order}s that were {@link Order.Status#TAKEN} and ordered more than
+ * {@code restbucks.archive.min-age} ago out of {@code RBOrder} and {@code line_item} into the tables of
+ * {@link ArchivedOrder}, every {@code restbucks.archive.interval}. Keeps the tables {@link OrderRepository#findByStatus}
+ * and the other collection resources scan at the size of the recent {@link Order}s.
+ * <p>
+ * The {@link Order}s are moved in batches of {@code restbucks.archive.batch-size}, each in a transaction of its own and
+ * with a statement per table rather than per {@link Order}, so only the rows of one batch are locked at a time. Taken
+ * {@link Order}s don't change anymore, so there's nothing to lose between selecting and moving a batch.
+ *
+ * @see OrderArchiveFallback
+ */
+@Slf4j
+@Component
+class OrderArchiver {
+
+	private static final String ARCHIVE_ORDERS = "insert into rborder_archive "
+			+ "(id, version, location, ordered_date, status, total_line_items, total_quantity, total_small, total_large, "
+			+ "total_whole, total_semi) "
+			+ "select id, version, location, ordered_date, status, total_line_items, total_quantity, total_small, "
+			+ "total_large, total_whole, total_semi from rborder where id in (:ids)";
+
+	private static final String ARCHIVE_LINE_ITEMS = "insert into line_item_archive "
+			+ "(order_id, id, version, name, quantity, milk, size, position) "
+			+ "select order_id, id, version, name, quantity, milk, size, position from line_item where order_id in (:ids)";
+
+	private static final String DELETE_LINE_ITEMS = "delete from line_item where order_id in (:ids)";
+	private static final String DELETE_ORDERS = "delete from rborder where id in (:ids)";
+
+	private final OrderRepository orders;
+	private final EntityManager em;
+	private final TransactionTemplate transactions;
+	private final Duration minAge;
+	private final int batchSize;
+
+	OrderArchiver(OrderRepository orders, EntityManager em, PlatformTransactionManager transactionManager,
+			@Value("${restbucks.archive.min-age:30d}") Duration minAge,
+			@Value("${restbucks.archive.batch-size:500}") int batchSize) {
+
+		this.orders = orders;
+		this.em = em;
+		this.transactions = new TransactionTemplate(transactionManager);
+		this.minAge = minAge;
+		this.batchSize = batchSize;
+	}
+
+	@Scheduled(initialDelayString = "${restbucks.archive.interval:PT1H}",
+			fixedDelayString = "${restbucks.archive.interval:PT1H}")
+	void archive() {
+
+		int archived = archive(LocalDateTime.now().minus(minAge));
+
+		log.info("Archived {} orders taken more than {} ago.", archived, minAge);
+	}
+
+	/**
+	 * Archives all {@link Order.Status#TAKEN} {@link Order}s ordered before the given date.
+	 *
+	 * @return the number of archived {@link Order}s.
+	 */
+	int archive(LocalDateTime orderedBefore) {
+
+		int archived = 0;
+		int moved;
+
+		do {
+			moved = transactions.execute(status -> archiveBatch(orderedBefore));
+			archived += moved;
+		} while (moved == batchSize);
+
+		return archived;
+	}
+
+	private int archiveBatch(LocalDateTime orderedBefore) {
+
+		List<Long> ids = orders.findIdsByStatusOrderedBefore(Order.Status.TAKEN, orderedBefore,
+				PageRequest.of(0, batchSize));
+
+		if (ids.isEmpty()) {
+			return 0;
+		}
+
+		execute(ARCHIVE_ORDERS, ids, ArchivedOrder.class);
+		execute(ARCHIVE_LINE_ITEMS, ids, ArchivedOrder.class);
+		execute(DELETE_LINE_ITEMS, ids, LineItem.class);
+		execute(DELETE_ORDERS, ids, Order.class);
+
+		return ids.size();
+	}
+
+	/**
+	 * Runs the given statement for the given {@link Order} ids. Declaring the entity whose tables it changes limits the
+	 * second-level cache regions and cached queries Hibernate invalidates to the ones of that entity, instead of all.
+	 */
+	private void execute(String statement, List<Long> ids, Class<?> entity) {
+
+		em.createNativeQuery(statement)
+				.setParameter("ids", ids)
+				.unwrap(NativeQuery.class)
+				.addSynchronizedEntityClass(entity)
+				.executeUpdate();
+	}
+}
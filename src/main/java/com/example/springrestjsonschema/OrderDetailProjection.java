@@ -0,0 +1,34 @@
+package com.example.springrestjsonschema;
+
+import org.springframework.data.rest.core.config.Projection;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Projection interface to render {@link Order}s along with their line items in collection and search resources, which
+ * otherwise render the {@code summary} excerpt.
+ */
+@Projection(name = "detail", types = Order.class)
+public interface OrderDetailProjection {
+
+	/**
+	 * @see Order#getOrderedDate()
+	 */
+	LocalDateTime getOrderedDate();
+
+	/**
+	 * @see Order#getStatus()
+	 */
+	Order.Status getStatus();
+
+	/**
+	 * @see Order#getLocation()
+	 */
+	Location getLocation();
+
+	/**
+	 * @see Order#getLineItems()
+	 */
+	List<LineItem> getLineItems();
+}
@@ -0,0 +1,178 @@
+package com.example.springrestjsonschema;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Fans committed {@link OrderStatusChanged} events out to Server-Sent Events subscribers. Publishing only appends to
+ * a bounded buffer per subscriber, the events are written to the subscribers' connections on a pool of
+ * {@code restbucks.events.threads} threads of its own, so a slow client never holds up the transaction that changed
+ * the {@link Order} or the application's task executor, e.g. asynchronous Spring MVC requests.
+ * <p>
+ * Writing to a client that doesn't read blocks one of those threads until the connection times out. Other subscribers
+ * wait for a free thread meanwhile, up to {@code restbucks.events.queue-capacity} of them. A subscriber whose buffer
+ * overflows or who finds no room in that queue is disconnected and expected to reconnect and re-read the
+ * {@link Order}s it is interested in.
+ */
+@Slf4j
+@Component
+class OrderEventBroadcaster {
+
+	private final ThreadPoolTaskExecutor executor;
+	private final int bufferSize;
+	private final Duration timeout;
+
+	private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+	OrderEventBroadcaster(@Value("${restbucks.events.threads:4}") int threads,
+			@Value("${restbucks.events.queue-capacity:1000}") int queueCapacity,
+			@Value("${restbucks.events.buffer-size:32}") int bufferSize,
+			@Value("${restbucks.events.timeout:30m}") Duration timeout) {
+
+		this.executor = new ThreadPoolTaskExecutor();
+		this.executor.setCorePoolSize(threads);
+		this.executor.setMaxPoolSize(threads);
+		this.executor.setQueueCapacity(queueCapacity);
+		this.executor.setThreadNamePrefix("restbucks-events-");
+		this.executor.initialize();
+
+		this.bufferSize = bufferSize;
+		this.timeout = timeout;
+	}
+
+	@PreDestroy
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Subscribes to the {@link OrderStatusChanged} events matching the given filter.
+	 *
+	 * @param filter must not be {@literal null}.
+	 * @return the emitter to hand to Spring MVC.
+	 */
+	SseEmitter subscribe(Predicate<OrderStatusChanged> filter) {
+
+		SseEmitter emitter = new SseEmitter(timeout.toMillis());
+		Subscription subscription = new Subscription(emitter, filter);
+
+		emitter.onCompletion(() -> subscriptions.remove(subscription));
+		emitter.onTimeout(subscription::close);
+		emitter.onError(error -> subscriptions.remove(subscription));
+
+		subscriptions.add(subscription);
+
+		return emitter;
+	}
+
+	/**
+	 * Returns the number of current subscribers.
+	 */
+	int getSubscriberCount() {
+		return subscriptions.size();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(OrderStatusChanged event) {
+		subscriptions.forEach(subscription -> subscription.offer(event));
+	}
+
+	private class Subscription {
+
+		private final SseEmitter emitter;
+		private final Predicate<OrderStatusChanged> filter;
+		private final BlockingQueue<OrderStatusChanged> buffer = new ArrayBlockingQueue<>(bufferSize);
+		private final AtomicBoolean draining = new AtomicBoolean();
+
+		Subscription(SseEmitter emitter, Predicate<OrderStatusChanged> filter) {
+
+			this.emitter = emitter;
+			this.filter = filter;
+		}
+
+		void offer(OrderStatusChanged event) {
+
+			if (!filter.test(event)) {
+				return;
+			}
+
+			if (!buffer.offer(event)) {
+				log.debug("Disconnecting subscriber lagging more than {} events behind.", bufferSize);
+				close();
+				return;
+			}
+
+			scheduleDrain();
+		}
+
+		void close() {
+
+			subscriptions.remove(this);
+			emitter.complete();
+		}
+
+		private void scheduleDrain() {
+
+			if (!draining.compareAndSet(false, true)) {
+				return;
+			}
+
+			try {
+				executor.execute(this::drain);
+			} catch (TaskRejectedException o_O) {
+				log.debug("Disconnecting subscriber as all event threads are busy.");
+				draining.set(false);
+				close();
+			}
+		}
+
+		private void drain() {
+
+			try {
+
+				for (OrderStatusChanged event = buffer.poll(); event != null; event = buffer.poll()) {
+					emitter.send(SseEmitter.event()
+							.name("status")
+							.data(event, MediaType.APPLICATION_JSON));
+				}
+
+			} catch (IOException o_O) {
+
+				// the client went away, ends the async request rather than waiting for its timeout
+				subscriptions.remove(this);
+				emitter.completeWithError(o_O);
+				return;
+
+			} catch (IllegalStateException o_O) {
+
+				// the emitter completed in the meantime
+				subscriptions.remove(this);
+				return;
+
+			} finally {
+				draining.set(false);
+			}
+
+			// picks up events offered after the buffer was found empty
+			if (!buffer.isEmpty()) {
+				scheduleDrain();
+			}
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.example.springrestjsonschema;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Streams {@link Order} status changes as Server-Sent Events once they're committed, optionally restricted to a
+ * single {@link Order} ({@code orderId}) and/or a set of {@link Order.Status}es ({@code status}, repeatable).
+ * <p>
+ * This is a plain Spring MVC controller as Spring Data REST's handler adapter lacks the {@code String} converter
+ * {@link SseEmitter} needs, mapped under the Spring Data REST base path to live next to the {@link Order} resources.
+ *
+ * @see OrderEventBroadcaster
+ */
+@RestController
+@RequiredArgsConstructor
+class OrderEventController {
+
+	private final OrderEventBroadcaster broadcaster;
+
+	@GetMapping("${spring.data.rest.base-path:}/orders/events")
+	SseEmitter events(@RequestParam(name = "orderId", required = false) Long orderId,
+			@RequestParam(name = "status", required = false) Set<Order.Status> statuses) {
+
+		Predicate<OrderStatusChanged> filter = event -> true;
+
+		if (orderId != null) {
+			filter = filter.and(event -> orderId.equals(event.getOrderId()));
+		}
+
+		if (statuses != null && !statuses.isEmpty()) {
+			filter = filter.and(event -> statuses.contains(event.getStatus()));
+		}
+
+		return broadcaster.subscribe(filter);
+	}
+}
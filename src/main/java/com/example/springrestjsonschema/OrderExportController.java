@@ -0,0 +1,32 @@
+package com.example.springrestjsonschema;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Streams all {@link Order}s as newline delimited JSON for reconciliation.
+ *
+ * @see OrderExporter
+ */
+@RepositoryRestController
+@RequiredArgsConstructor
+class OrderExportController {
+
+	private final OrderExporter exporter;
+
+	/**
+	 * Deliberately doesn't declare {@code produces}, as Spring Data REST maps a missing or wildcard {@code Accept} header
+	 * to HAL, which would route the request to the item resource instead.
+	 */
+	@GetMapping("/orders/export")
+	void export(HttpServletResponse response) throws IOException {
+
+		response.setContentType(OrderIngestController.APPLICATION_NDJSON_VALUE);
+
+		exporter.export(response.getOutputStream());
+	}
+}
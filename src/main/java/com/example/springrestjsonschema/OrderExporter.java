@@ -0,0 +1,81 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes all {@link Order}s as newline delimited JSON, one order including its line items per line. Orders are read
+ * through a forward-only cursor and detached once written, so memory use doesn't depend on the number of orders.
+ */
+@Service
+class OrderExporter {
+
+	private final OrderRepository orders;
+	private final EntityManager em;
+	private final ObjectWriter writer;
+
+	OrderExporter(OrderRepository orders, EntityManager em, ObjectMapper objectMapper) {
+
+		this.orders = orders;
+		this.em = em;
+		this.writer = objectMapper.writerFor(ExportedOrder.class)
+				.withRootValueSeparator("\n")
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+	}
+
+	/**
+	 * Writes all orders to the given {@link OutputStream}, which is left open.
+	 *
+	 * @return the number of orders written.
+	 */
+	@Transactional(readOnly = true)
+	public long export(OutputStream out) throws IOException {
+
+		long count = 0;
+
+		try (Stream<Order> stream = orders.streamAll();
+				JsonGenerator generator = writer.getFactory().createGenerator(out)
+						.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+
+			for (Iterator<Order> iterator = stream.iterator(); iterator.hasNext(); count++) {
+
+				Order order = iterator.next();
+
+				writer.writeValue(generator, new ExportedOrder(order));
+				em.detach(order);
+			}
+
+			if (count > 0) {
+				generator.writeRaw('\n');
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * An {@link Order} as exported, i.e. as rendered by the API plus its identifier.
+	 */
+	@Value
+	static class ExportedOrder {
+
+		@JsonUnwrapped
+		Order order;
+
+		public Long getId() {
+			return order.getId();
+		}
+	}
+}
@@ -0,0 +1,41 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Accepts many {@link Order}s in one request, either as a JSON array or as newline delimited JSON, in the same shape
+ * as {@code POST /orders}. Orders are read one at a time from the request body and handed to the
+ * {@link OrderIngester}, so neither the submission nor the persisted orders are held in memory as a whole.
+ */
+@RepositoryRestController
+class OrderIngestController {
+
+	static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+	private final ObjectReader reader;
+	private final OrderIngester ingester;
+
+	OrderIngestController(ObjectMapper objectMapper, OrderIngester ingester) {
+
+		this.reader = objectMapper.readerFor(Order.class);
+		this.ingester = ingester;
+	}
+
+	@PostMapping(path = "/orders/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE })
+	ResponseEntity<List<IngestResult>> ingest(InputStream body) throws IOException {
+
+		try (MappingIterator<Order> orders = reader.readValues(body)) {
+			return ResponseEntity.ok(ingester.ingest(orders));
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.rest.webmvc.support.RepositoryEntityLinks;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Persists a stream of {@link Order}s in chunks of {@code restbucks.ingest.chunk-size} (defaulting to the JDBC batch
+ * size), each in its own transaction. The persistence context is flushed and cleared after every chunk so that its
+ * size stays bounded no matter how many orders are submitted.
+ * <p>
+ * Orders that can't be bound are rejected individually. A chunk that fails to persist is rolled back and its orders are
+ * persisted one by one, so that only the ones failing on their own are reported as failed. Why they failed is logged
+ * rather than reported, as it's the database's account of it.
+ */
+@Slf4j
+@Service
+class OrderIngester {
+
+	private static final String PERSISTENCE_FAILED = "could not be persisted";
+
+	private final EntityManager em;
+	private final TransactionTemplate transactions;
+	private final RepositoryEntityLinks entityLinks;
+	private final int chunkSize;
+
+	OrderIngester(EntityManager em, PlatformTransactionManager transactionManager, RepositoryEntityLinks entityLinks,
+			@Value("${restbucks.ingest.chunk-size:50}") int chunkSize) {
+
+		this.em = em;
+		this.transactions = new TransactionTemplate(transactionManager);
+		this.entityLinks = entityLinks;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Persists all orders of the given iterator.
+	 *
+	 * @param orders must not be {@literal null}.
+	 * @return the outcome for every submitted order, in submission order.
+	 */
+	List<IngestResult> ingest(MappingIterator<Order> orders) {
+
+		List<IngestResult> results = new ArrayList<>();
+		List<Pending> chunk = new ArrayList<>(chunkSize);
+
+		for (int index = 0;; index++) {
+
+			try {
+
+				if (!orders.hasNextValue()) {
+					break;
+				}
+
+				chunk.add(new Pending(index, orders.nextValue()));
+
+			} catch (JsonMappingException o_O) {
+
+				results.add(IngestResult.rejected(index, o_O.getOriginalMessage()));
+
+			} catch (IOException o_O) {
+
+				// Malformed input, there's no telling where the next order starts
+				results.add(IngestResult.rejected(index, o_O.getMessage()));
+				break;
+			}
+
+			if (chunk.size() == chunkSize) {
+				results.addAll(persist(chunk));
+				chunk.clear();
+			}
+		}
+
+		results.addAll(persist(chunk));
+		results.sort(Comparator.comparingInt(IngestResult::getIndex));
+
+		return results;
+	}
+
+	private List<IngestResult> persist(List<Pending> chunk) {
+
+		if (chunk.isEmpty()) {
+			return List.of();
+		}
+
+		try {
+
+			transactions.executeWithoutResult(status -> persistAndClear(chunk));
+
+			return chunk.stream().map(this::created).collect(Collectors.toList());
+
+		} catch (RuntimeException o_O) {
+
+			if (chunk.size() == 1) {
+
+				log.warn("Order {} of the submission failed to persist: {}", chunk.get(0).index,
+						NestedExceptionUtils.getMostSpecificCause(o_O).getMessage());
+				log.debug("Persisting order {} failed", chunk.get(0).index, o_O);
+
+				return List.of(IngestResult.failed(chunk.get(0).index, PERSISTENCE_FAILED));
+			}
+
+			log.debug("Chunk of {} orders failed, persisting them one by one", chunk.size(), o_O);
+
+			return chunk.stream()
+					.flatMap(pending -> persist(List.of(pending.retry())).stream())
+					.collect(Collectors.toList());
+		}
+	}
+
+	private void persistAndClear(List<Pending> orders) {
+
+		orders.forEach(pending -> em.persist(pending.order));
+
+		em.flush();
+		em.clear();
+	}
+
+	private IngestResult created(Pending pending) {
+		return IngestResult.created(pending.index,
+				entityLinks.linkToItemResource(Order.class, pending.order.getId()).expand().getHref());
+	}
+
+	private static class Pending {
+
+		final int index;
+		final Order order;
+
+		Pending(int index, Order order) {
+			this.index = index;
+			this.order = order;
+		}
+
+		/**
+		 * Returns a copy of the {@link Order} as bound, as persisting assigned ids to the original that were rolled back.
+		 */
+		Pending retry() {
+
+			List<LineItem> lineItems = order.getLineItems().stream()
+					.map(item -> new LineItem(item.getName(), item.getQuantity(), item.getMilk(), item.getSize()))
+					.collect(Collectors.toList());
+
+			return new Pending(index, new Order(lineItems, order.getLocation()));
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package com.example.springrestjsonschema;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.webmvc.PersistentEntityResource;
+import org.springframework.data.rest.webmvc.PersistentEntityResourceAssembler;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.server.core.EmbeddedWrappers;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Pages through all {@link Order}s by ordered date and id using an opaque cursor rather than a page number. Each page
+ * links to the next one for as long as there are more {@link Order}s.
+ *
+ * @see OrderRepository#findKeysetPageAfter(LocalDateTime, Long, Pageable)
+ */
+@RepositoryRestController
+@RequiredArgsConstructor
+class OrderKeysetController {
+
+	private final OrderRepository orders;
+	private final RepositoryRestConfiguration configuration;
+
+	@GetMapping("/orders/keyset")
+	ResponseEntity<CollectionModel<?>> keyset(@RequestParam(name = "cursor", required = false) String cursor,
+			@RequestParam(name = "size", required = false) Integer size, PersistentEntityResourceAssembler assembler) {
+
+		Optional<Cursor> after = Optional.empty();
+
+		if (cursor != null) {
+
+			after = Cursor.parse(cursor);
+
+			if (!after.isPresent()) {
+				return ResponseEntity.badRequest().build();
+			}
+		}
+
+		int pageSize = size == null || size < 1 ? configuration.getDefaultPageSize()
+				: Math.min(size, configuration.getMaxPageSize());
+
+		// fetch one more to tell whether there's a next page
+		Pageable pageable = PageRequest.of(0, pageSize + 1);
+
+		List<Order> page = after
+				.map(it -> orders.findKeysetPageAfter(it.getOrderedDate(), it.getId(), pageable))
+				.orElseGet(() -> orders.findKeysetPage(pageable));
+
+		List<Link> links = new ArrayList<>();
+		links.add(new Link(ServletUriComponentsBuilder.fromCurrentRequest().build().toUriString()));
+
+		if (page.size() > pageSize) {
+
+			page = page.subList(0, pageSize);
+
+			String next = ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam("cursor", Cursor.of(page.get(pageSize - 1)).toString())
+					.replaceQueryParam("size", pageSize)
+					.build().toUriString();
+
+			links.add(new Link(next, IanaLinkRelations.NEXT));
+		}
+
+		if (page.isEmpty()) {
+			return ResponseEntity.ok(new CollectionModel<>(
+					Collections.singletonList(new EmbeddedWrappers(false).emptyCollectionOf(Order.class)), links));
+		}
+
+		List<PersistentEntityResource> content = page.stream()
+				.map(assembler::toModel)
+				.collect(Collectors.toList());
+
+		return ResponseEntity.ok(new CollectionModel<>(content, links));
+	}
+
+	/**
+	 * Position after the last {@link Order} of a page, rendered as URL safe Base64 of its ordered date and id.
+	 */
+	@Value
+	static class Cursor {
+
+		private static final String SEPARATOR = "_";
+
+		LocalDateTime orderedDate;
+		Long id;
+
+		static Cursor of(Order order) {
+			return new Cursor(order.getOrderedDate(), order.getId());
+		}
+
+		static Optional<Cursor> parse(String source) {
+
+			try {
+
+				String decoded = new String(Base64.getUrlDecoder().decode(source), StandardCharsets.UTF_8);
+				String[] parts = decoded.split(SEPARATOR, 2);
+
+				return parts.length != 2 ? Optional.empty()
+						: Optional.of(new Cursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1])));
+
+			} catch (IllegalArgumentException | DateTimeParseException o_O) {
+				return Optional.empty();
+			}
+		}
+
+		@Override
+		public String toString() {
+
+			String decoded = orderedDate + SEPARATOR + id;
+
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+}
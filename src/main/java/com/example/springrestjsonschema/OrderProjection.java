@@ -38,4 +38,10 @@ public interface OrderProjection {
 	 * @return
 	 */
 	Order.Status getStatus();
+
+	/**
+	 * @see Order#getTotals()
+	 * @return
+	 */
+	LineItemTotals getTotals();
 }
@@ -1,13 +1,125 @@
 package com.example.springrestjsonschema;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-@RepositoryRestResource(/*excerptProjection = OrderProjection.class*/)
-public interface OrderRepository extends PagingAndSortingRepository<Order, Long> {
+/**
+ * Query methods run in read-only transactions, like the finders inherited from {@link PagingAndSortingRepository}, so
+ * that they can be served by a read replica, see {@link ReadReplicas}.
+ */
+@RepositoryRestResource(excerptProjection = OrderProjection.class)
+@Transactional(readOnly = true)
+public interface OrderRepository extends PagingAndSortingRepository<Order, Long>, OrderArchiveFallback {
 
-	List<Order> findByStatus(@Param("status") Order.Status status);
-}
\ No newline at end of file
+	/**
+	 * Returns the {@link Order} with the given id, falling back to the archived ones.
+	 *
+	 * @see OrderArchiveFallback
+	 */
+	@Override
+	Optional<Order> findById(Long id);
+
+	/**
+	 * Deletes the {@link Order} with the given id, whether archived or not.
+	 *
+	 * @see OrderArchiveFallback
+	 */
+	@Override
+	@Transactional
+	void deleteById(Long id);
+
+	/**
+	 * Returns the current version of the {@link Order} with the given id without loading it.
+	 */
+	@RestResource(exported = false)
+	@Query("select o.version from Order o where o.id = :id")
+	Optional<Long> findVersionById(@Param("id") Long id);
+
+	/**
+	 * Returns the ids of all {@link Order}s in the given {@link Order.Status}, oldest first.
+	 */
+	@RestResource(exported = false)
+	@Query("select o.id from Order o where o.status = :status order by o.orderedDate, o.id")
+	List<Long> findIdsByStatus(@Param("status") Order.Status status);
+
+	/**
+	 * Returns the ids of the first {@link Order}s in the given {@link Order.Status} ordered before the given date, oldest
+	 * first. Read from the {@code (status, orderedDate, id)} index alone.
+	 *
+	 * @param pageable only the page size is considered.
+	 */
+	@RestResource(exported = false)
+	@Query("select o.id from Order o where o.status = :status and o.orderedDate < :orderedDate "
+			+ "order by o.orderedDate, o.id")
+	List<Long> findIdsByStatusOrderedBefore(@Param("status") Order.Status status,
+			@Param("orderedDate") LocalDateTime orderedDate, Pageable pageable);
+
+	/**
+	 * Returns a page of the {@link Order}s in the given {@link Order.Status}. Like other paged lookups, this relies on the
+	 * batch fetching configured for {@link Order#getLineItems()} to initialize the line items. Results are kept in the
+	 * query cache until an {@link Order} is written.
+	 */
+	@QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
+	Page<Order> findByStatus(@Param("status") Order.Status status, Pageable pageable);
+
+	/**
+	 * Returns a page of the {@link Order}s of at least the given number of drinks. Filters on the {@link LineItemTotals}
+	 * stored with the {@link Order} rather than on its line items.
+	 */
+	Page<Order> findByTotalsQuantityGreaterThanEqual(@Param("quantity") int quantity, Pageable pageable);
+
+	/**
+	 * Returns a page of {@link OrderSummary}s, selecting only the columns {@link OrderProjection} renders.
+	 */
+	@RestResource(exported = false)
+	@Query(value = "select new com.example.springrestjsonschema.OrderSummary(o.id, o.orderedDate, o.status, o.totals) "
+			+ "from Order o", countQuery = "select count(o) from Order o")
+	Page<OrderSummary> findSummaries(Pageable pageable);
+
+	/**
+	 * Returns the first {@link Order}s in keyset order, i.e. by ordered date and id.
+	 *
+	 * @see #findKeysetPageAfter(LocalDateTime, Long, Pageable)
+	 */
+	@RestResource(exported = false)
+	@Query("select o from Order o order by o.orderedDate, o.id")
+	List<Order> findKeysetPage(Pageable pageable);
+
+	/**
+	 * Returns the {@link Order}s following the given one in keyset order, i.e. by ordered date and id. Unlike an offset,
+	 * the position is looked up through the {@code (orderedDate, id)} index, so deep pages are as cheap as the first one.
+	 *
+	 * @param orderedDate the ordered date of the last {@link Order} seen.
+	 * @param id the id of the last {@link Order} seen.
+	 * @param pageable only the page size is considered.
+	 */
+	@RestResource(exported = false)
+	@Query("select o from Order o where o.orderedDate > :orderedDate or (o.orderedDate = :orderedDate and o.id > :id) "
+			+ "order by o.orderedDate, o.id")
+	List<Order> findKeysetPageAfter(@Param("orderedDate") LocalDateTime orderedDate, @Param("id") Long id,
+			Pageable pageable);
+
+	/**
+	 * Returns all {@link Order}s along with their line items as a forward-only stream, ordered by id. The stream has to be
+	 * consumed and closed within a transaction. Neither reads nor populates the second-level cache.
+	 */
+	@RestResource(exported = false)
+	@Query("select o from Order o left join fetch o.lineItems order by o.id")
+	@QueryHints({ @QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = "500"),
+			@QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true"),
+			@QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_MODE, value = "IGNORE") })
+	Stream<Order> streamAll();
+}
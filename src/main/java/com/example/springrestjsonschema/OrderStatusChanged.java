@@ -0,0 +1,14 @@
+package com.example.springrestjsonschema;
+
+import lombok.Value;
+
+/**
+ * Published when an {@link Order} moved from one {@link Order.Status} to another.
+ */
+@Value
+public class OrderStatusChanged {
+
+	Long orderId;
+	Order.Status previous;
+	Order.Status status;
+}
@@ -0,0 +1,24 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Value;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of an {@link Order} rendered by {@link OrderProjection}, selected straight from the database rather
+ * than projected from a loaded {@link Order}. Mirrors {@link OrderProjection} without implementing it, as Spring Data
+ * REST would otherwise pick it up as a {@code summary} projection of its own, competing with the interface.
+ *
+ * @see OrderRepository#findSummaries(org.springframework.data.domain.Pageable)
+ */
+@Value
+@Relation(collectionRelation = "orders")
+public class OrderSummary {
+
+	@JsonIgnore Long id;
+	LocalDateTime orderedDate;
+	Order.Status status;
+	LineItemTotals totals;
+}
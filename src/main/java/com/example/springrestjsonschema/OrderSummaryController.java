@@ -0,0 +1,64 @@
+package com.example.springrestjsonschema;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.data.rest.core.mapping.ResourceMappings;
+import org.springframework.data.rest.webmvc.ProfileController;
+import org.springframework.data.rest.webmvc.ProfileResourceProcessor;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.data.rest.webmvc.support.RepositoryEntityLinks;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Renders the {@link Order} collection resource in its excerpt, the {@code summary} {@link OrderProjection}, from
+ * {@link OrderSummary}s instead of projecting loaded {@link Order}s, so a page costs one narrow query plus the count.
+ * Requests for any other projection are left to Spring Data REST.
+ */
+@RepositoryRestController
+@RequiredArgsConstructor
+class OrderSummaryController {
+
+	private final OrderRepository orders;
+	private final RepositoryEntityLinks entityLinks;
+	private final RepositoryRestConfiguration configuration;
+	private final ResourceMappings mappings;
+
+	@GetMapping(path = "/orders", params = "!projection")
+	ResponseEntity<PagedModel<?>> excerpts(Pageable pageable, PagedResourcesAssembler<OrderSummary> assembler) {
+		return summaries(pageable, assembler);
+	}
+
+	@GetMapping(path = "/orders", params = "projection=summary")
+	ResponseEntity<PagedModel<?>> summaries(Pageable pageable, PagedResourcesAssembler<OrderSummary> assembler) {
+
+		Page<OrderSummary> page = orders.findSummaries(pageable);
+
+		// keeps the projection parameter in the pagination links
+		Link base = new Link(ServletUriComponentsBuilder.fromCurrentRequest().build().toUriString());
+
+		PagedModel<?> model = page.hasContent() //
+				? assembler.toModel(page, this::toModel, base) //
+				: assembler.toEmptyModel(page, OrderSummary.class, base);
+
+		model.add(new Link(ProfileController.getPath(configuration, mappings.getMetadataFor(Order.class)),
+				ProfileResourceProcessor.PROFILE_REL));
+		model.add(entityLinks.linkFor(Order.class).slash("search").withRel("search"));
+
+		return ResponseEntity.ok(model);
+	}
+
+	private EntityModel<OrderSummary> toModel(OrderSummary summary) {
+
+		Link self = entityLinks.linkToItemResource(Order.class, summary.getId()).expand();
+
+		return new EntityModel<>(summary, self.withSelfRel(), self.withRel("order"));
+	}
+}
@@ -0,0 +1,47 @@
+package com.example.springrestjsonschema;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.rest.webmvc.RepositoryRestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
+
+/**
+ * Moves {@link Order}s into another {@link Order.Status} without submitting the whole {@link Order}, either a single
+ * one through {@code POST /orders/{id}/transitions/{status}} or many through {@code POST /orders/transitions/{status}}
+ * with a JSON array of ids.
+ *
+ * @see OrderTransitions
+ */
+@RepositoryRestController
+@RequiredArgsConstructor
+class OrderTransitionController {
+
+	private final OrderTransitions transitions;
+
+	@PostMapping("/orders/{id}/transitions/{status}")
+	ResponseEntity<TransitionResult> transition(@PathVariable("id") Long id,
+			@PathVariable("status") Order.Status status) {
+
+		TransitionResult result = transitions.transition(id, status);
+
+		switch (result.getOutcome()) {
+			case TRANSITIONED:
+				return ResponseEntity.ok().eTag(result.getVersion().toString()).body(result);
+			case NOT_FOUND:
+				return ResponseEntity.notFound().build();
+			default:
+				return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+		}
+	}
+
+	@PostMapping("/orders/transitions/{status}")
+	ResponseEntity<List<TransitionResult>> transition(@RequestBody List<Long> ids,
+			@PathVariable("status") Order.Status status) {
+		return ResponseEntity.ok(transitions.transition(ids, status));
+	}
+}
@@ -0,0 +1,97 @@
+package com.example.springrestjsonschema;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.OptimisticLockException;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Moves {@link Order}s through their {@link Order.Status}es by updating the managed {@link Order} under its version
+ * check, so that only its own entry in the second-level cache is replaced. The line items are not loaded. An update
+ * that finds the {@link Order} changed concurrently is retried against the new state up to
+ * {@code restbucks.transitions.max-attempts} times.
+ * <p>
+ * Every successful transition publishes an {@link OrderStatusChanged} within its transaction.
+ */
+@Slf4j
+@Service
+class OrderTransitions {
+
+	private final OrderRepository orders;
+	private final EntityManager entityManager;
+	private final TransactionTemplate transactions;
+	private final int maxAttempts;
+
+	OrderTransitions(OrderRepository orders, EntityManager entityManager,
+			PlatformTransactionManager transactionManager,
+			@Value("${restbucks.transitions.max-attempts:5}") int maxAttempts) {
+
+		this.orders = orders;
+		this.entityManager = entityManager;
+		this.transactions = new TransactionTemplate(transactionManager);
+		this.maxAttempts = maxAttempts;
+	}
+
+	/**
+	 * Moves the {@link Order} with the given id into the given {@link Order.Status}.
+	 *
+	 * @param id must not be {@literal null}.
+	 * @param status must not be {@literal null}.
+	 */
+	TransitionResult transition(Long id, Order.Status status) {
+
+		for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+
+			try {
+				return transactions.execute(tx -> attempt(id, status));
+			} catch (OptimisticLockException | OptimisticLockingFailureException o_O) {
+				log.debug("Order {} changed concurrently, retrying transition to {} ({}/{}).", id, status, attempt,
+						maxAttempts);
+			}
+		}
+
+		return TransitionResult.conflict(id);
+	}
+
+	/**
+	 * Moves all {@link Order}s with the given ids into the given {@link Order.Status}, each in its own transaction.
+	 *
+	 * @return the outcome for every id, in the given order.
+	 */
+	List<TransitionResult> transition(Collection<Long> ids, Order.Status status) {
+
+		return ids.stream()
+				.map(id -> transition(id, status))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Flushes the transition right away, so that an {@link Order} changed between reading and updating it fails the
+	 * attempt with an {@link OptimisticLockException}.
+	 */
+	private TransitionResult attempt(Long id, Order.Status status) {
+
+		Order order = entityManager.find(Order.class, id);
+
+		if (order == null) {
+			return TransitionResult.notFound(id);
+		}
+
+		if (!status.getPrecondition().filter(order.getStatus()::equals).isPresent()) {
+			return TransitionResult.rejected(id, order.getStatus(), order.getVersion());
+		}
+
+		orders.save(order.transitionTo(status));
+		entityManager.flush();
+
+		return TransitionResult.transitioned(id, status, order.getVersion());
+	}
+}
@@ -0,0 +1,120 @@
+package com.example.springrestjsonschema;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Evaluates conditional requests to {@code /orders/{id}} against the {@link Order}'s version alone, i.e. before the
+ * aggregate is loaded and rendered. A matching {@code If-None-Match} on {@code GET} and {@code HEAD} is answered with
+ * {@code 304 Not Modified}, a stale {@code If-Match} on {@code PUT}, {@code PATCH} and {@code DELETE} with
+ * {@code 412 Precondition Failed}. The entity tags are the ones Spring Data REST renders for the {@link Order}, the
+ * quoted version, so anything else is passed on unchanged.
+ * <p>
+ * {@link LineItem}s are only ever changed through their {@link Order}, which increments the {@link Order}'s version.
+ */
+@Component
+@RequiredArgsConstructor
+class OrderVersionFilter extends OncePerRequestFilter {
+
+	private static final Pattern ITEM_RESOURCE = Pattern.compile("/orders/(\\d+)");
+	private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
+	private final OrderRepository orders;
+	private final RepositoryRestConfiguration configuration;
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+
+		HttpMethod method = HttpMethod.resolve(request.getMethod());
+
+		if (method == null) {
+			return true;
+		}
+
+		switch (method) {
+			case GET:
+			case HEAD:
+				return request.getHeader(HttpHeaders.IF_NONE_MATCH) == null;
+			case PUT:
+			case PATCH:
+			case DELETE:
+				return request.getHeader(HttpHeaders.IF_MATCH) == null;
+			default:
+				return true;
+		}
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		Optional<String> etag = getOrderId(request)
+				.flatMap(orders::findVersionById)
+				.map(version -> "\"" + version + "\"");
+
+		if (!etag.isPresent()) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		if (request.getHeader(HttpHeaders.IF_MATCH) != null) {
+
+			if (!matches(request.getHeader(HttpHeaders.IF_MATCH), etag.get())) {
+				response.setHeader(HttpHeaders.ETAG, etag.get());
+				response.setStatus(HttpStatus.PRECONDITION_FAILED.value());
+				return;
+			}
+
+		} else if (new ServletWebRequest(request, response).checkNotModified(etag.get())) {
+			return;
+		}
+
+		chain.doFilter(request, response);
+	}
+
+	private Optional<Long> getOrderId(HttpServletRequest request) {
+
+		String prefix = configuration.getBasePath().toString();
+		String path = PATH_HELPER.getPathWithinApplication(request);
+
+		if (!path.startsWith(prefix)) {
+			return Optional.empty();
+		}
+
+		Matcher matcher = ITEM_RESOURCE.matcher(path.substring(prefix.length()));
+
+		try {
+			return matcher.matches() ? Optional.of(Long.valueOf(matcher.group(1))) : Optional.empty();
+		} catch (NumberFormatException o_O) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Returns whether the given {@code If-Match} header value matches the given entity tag, using the strong comparison
+	 * RFC 7232 requires for {@code If-Match}.
+	 */
+	private static boolean matches(String ifMatch, String etag) {
+
+		return Arrays.stream(StringUtils.tokenizeToStringArray(ifMatch, ","))
+				.anyMatch(candidate -> candidate.equals("*") || candidate.equals(etag));
+	}
+}
@@ -0,0 +1,48 @@
+package com.example.springrestjsonschema;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * A {@link SequenceStyleGenerator} that allocates identifiers in blocks, so that a single sequence call covers a whole
+ * block of inserts (the {@code pooled-lo} optimizer).
+ * <p>
+ * The block size is looked up by JPA entity name from {@code spring.jpa.properties.restbucks.id.block-size.<entity>},
+ * falling back to {@code spring.jpa.properties.restbucks.id.block-size} and finally {@value #DEFAULT_BLOCK_SIZE}.
+ *
+ * @see #STRATEGY
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+	/**
+	 * The strategy to refer to this generator with in {@link org.hibernate.annotations.GenericGenerator}.
+	 */
+	public static final String STRATEGY = "com.example.springrestjsonschema.PooledSequenceGenerator";
+
+	static final String BLOCK_SIZE = "restbucks.id.block-size";
+	static final int DEFAULT_BLOCK_SIZE = 50;
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+
+		Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+		Object blockSize = settings.get(BLOCK_SIZE + "." + params.getProperty(IdentifierGenerator.JPA_ENTITY_NAME));
+
+		if (blockSize == null) {
+			blockSize = settings.get(BLOCK_SIZE);
+		}
+
+		params.setProperty(INCREMENT_PARAM, blockSize == null ? String.valueOf(DEFAULT_BLOCK_SIZE) : blockSize.toString());
+		params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+
+		super.configure(type, params, serviceRegistry);
+	}
+}
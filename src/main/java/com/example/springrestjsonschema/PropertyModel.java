@@ -0,0 +1,186 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBase;
+import com.fasterxml.jackson.databind.deser.CreatorProperty;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mapping.context.PersistentEntities;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Which properties of the persistent types are rendered, bound and ignored by the {@link ObjectMapper} Spring Data REST
+ * reads and writes {@code application/json} and {@code application/hal+json} with.
+ * <p>
+ * The model is taken from the (de)serializers that mapper actually builds, i.e. after {@code INFER_PROPERTY_MUTATORS},
+ * the mixins of {@link JacksonCustomizations.RestbucksModule} and the serializer modifiers of Spring Data REST have
+ * been applied, rather than from a separate introspection. It is computed once on startup, which also leaves the
+ * (de)serializers of both mappers cached so none of them is built on the request path.
+ */
+@Slf4j
+@Component
+class PropertyModel {
+
+	private final Map<Class<?>, TypeModel> types;
+
+	/**
+	 * @param jacksonConverter the converter Spring Data REST binds {@code application/json} with.
+	 * @param halConverter the converter Spring Data REST binds {@code application/hal+json} with, only warmed up.
+	 */
+	PropertyModel(PersistentEntities entities,
+			@Qualifier("jacksonHttpMessageConverter") AbstractJackson2HttpMessageConverter jacksonConverter,
+			@Qualifier("halJacksonHttpMessageConverter") AbstractJackson2HttpMessageConverter halConverter) {
+
+		ObjectMapper mapper = jacksonConverter.getObjectMapper();
+
+		this.types = Collections.unmodifiableMap(entities.getManagedTypes().stream()
+				.map(TypeInformation::getType)
+				.sorted((left, right) -> left.getName().compareTo(right.getName()))
+				.collect(Collectors.toMap(Function.identity(), type -> createModel(mapper, type), (left, right) -> left,
+						LinkedHashMap::new)));
+
+		types.keySet().forEach(type -> {
+			halConverter.getObjectMapper().canSerialize(type);
+			halConverter.getObjectMapper().canDeserialize(halConverter.getObjectMapper().constructType(type));
+		});
+
+		log.info("Computed property model of {}", types.keySet());
+	}
+
+	/**
+	 * Returns the model of the given type.
+	 *
+	 * @return {@link Optional#empty()} if the type is not a persistent one.
+	 */
+	Optional<TypeModel> getModel(Class<?> type) {
+		return Optional.ofNullable(types.get(type));
+	}
+
+	/**
+	 * Returns the model of the persistent type with the given simple name, e.g. {@code Order}.
+	 */
+	Optional<TypeModel> getModel(String simpleName) {
+
+		return types.values().stream()
+				.filter(model -> model.getType().getSimpleName().equals(simpleName))
+				.findFirst();
+	}
+
+	Collection<TypeModel> getModels() {
+		return types.values();
+	}
+
+	private static TypeModel createModel(ObjectMapper mapper, Class<?> type) {
+
+		try {
+
+			JavaType javaType = mapper.constructType(type);
+			DeserializationConfig config = mapper.getDeserializationConfig();
+			BeanDescription description = config.introspect(javaType);
+
+			JsonSerializer<Object> serializer = mapper.getSerializerProviderInstance().findValueSerializer(javaType);
+
+			DeserializationContext context = ((DefaultDeserializationContext) mapper.getDeserializationContext())
+					.createInstance(config, null, null);
+			JsonDeserializer<Object> deserializer = context.findRootValueDeserializer(javaType);
+
+			Map<String, Class<?>> readable = new LinkedHashMap<>();
+			serializer.properties().forEachRemaining(writer -> readable.put(writer.getName(), rawType(writer)));
+
+			Map<String, SettableBeanProperty> writable = new LinkedHashMap<>();
+
+			if (deserializer instanceof BeanDeserializerBase) {
+				((BeanDeserializerBase) deserializer).properties()
+						.forEachRemaining(property -> writable.put(property.getName(), property));
+			}
+
+			Set<String> names = new TreeSet<>(readable.keySet());
+			names.addAll(writable.keySet());
+
+			Map<String, Property> properties = new LinkedHashMap<>();
+
+			names.forEach(name -> {
+
+				SettableBeanProperty mutator = writable.get(name);
+
+				properties.put(name, new Property(name,
+						mutator != null ? mutator.getType().getRawClass() : readable.get(name),
+						readable.containsKey(name), mutator != null, mutator instanceof CreatorProperty, false));
+			});
+
+			description.findProperties();
+			description.getIgnoredPropertyNames().stream()
+					.filter(name -> !properties.containsKey(name))
+					.sorted()
+					.forEach(name -> properties.put(name, new Property(name, null, false, false, false, true)));
+
+			JsonIgnoreProperties.Value ignorals = config.getDefaultPropertyIgnorals(type, description.getClassInfo());
+			boolean ignoreUnknown = ignorals.getIgnoreUnknown()
+					|| !config.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+			return new TypeModel(type, ignoreUnknown, Collections.unmodifiableMap(properties));
+
+		} catch (JsonMappingException o_O) {
+			throw new IllegalStateException(String.format("Could not build property model of %s!", type), o_O);
+		}
+	}
+
+	private static Class<?> rawType(PropertyWriter writer) {
+		return writer.getType() == null ? Object.class : writer.getType().getRawClass();
+	}
+
+	/**
+	 * The properties of a type, keyed by their JSON name.
+	 */
+	@Value
+	static class TypeModel {
+
+		Class<?> type;
+		boolean unknownPropertiesIgnored;
+		Map<String, Property> properties;
+
+		Optional<Property> getProperty(String name) {
+			return Optional.ofNullable(properties.get(name));
+		}
+	}
+
+	/**
+	 * A single property. {@code type} is the one it is bound as if it is writable, the rendered one otherwise, and
+	 * {@literal null} for ignored properties.
+	 */
+	@Value
+	static class Property {
+
+		String name;
+		Class<?> type;
+		boolean readable;
+		boolean writable;
+		boolean creatorBound;
+		boolean ignored;
+	}
+}
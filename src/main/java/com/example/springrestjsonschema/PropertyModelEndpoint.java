@@ -0,0 +1,39 @@
+package com.example.springrestjsonschema;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes the {@link PropertyModel} under {@code /actuator/propertymodel} and {@code /actuator/propertymodel/{type}},
+ * keyed by the simple name of the type.
+ */
+@Component
+@Endpoint(id = "propertymodel")
+@RequiredArgsConstructor
+class PropertyModelEndpoint {
+
+	private final PropertyModel model;
+
+	@ReadOperation
+	public Map<String, PropertyModel.TypeModel> models() {
+
+		Map<String, PropertyModel.TypeModel> models = new LinkedHashMap<>();
+		model.getModels().forEach(type -> models.put(type.getType().getSimpleName(), type));
+
+		return models;
+	}
+
+	/**
+	 * @return {@literal null} to answer {@code 404 Not Found} for types that are not persistent.
+	 */
+	@ReadOperation
+	public PropertyModel.TypeModel model(@Selector String type) {
+		return model.getModel(type).orElse(null);
+	}
+}
@@ -0,0 +1,71 @@
+package com.example.springrestjsonschema;
+
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.sql.SQLException;
+
+/**
+ * Keeps what's read from a replica out of the second-level and query caches, as it may lag behind the primary and
+ * would then be served to the readers of the primary, see {@link ReadReplicaRoutingDataSource#isPinnedToPrimary()}.
+ * Read-only transactions not pinned to the primary bypass the caches when storing what they read, as
+ * {@link CacheStoreMode#BYPASS} is what Hibernate derives the cache mode of a lookup from. A session of a thread routed
+ * to the replicas keeps doing so after the transaction, for the lazy loading outside of it.
+ */
+@SuppressWarnings("serial")
+class ReadReplicaJpaDialect extends HibernateJpaDialect {
+
+	private static final String STORE_MODE = "javax.persistence.cache.storeMode";
+
+	@Override
+	public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+			throws PersistenceException, SQLException {
+
+		Object transactionData = super.beginTransaction(entityManager, definition);
+
+		if (!definition.isReadOnly() || ReadReplicaRoutingDataSource.isPinnedToPrimary()) {
+			return transactionData;
+		}
+
+		Object previousStoreMode = entityManager.getProperties().get(STORE_MODE);
+
+		entityManager.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+
+		return new ReplicaTransactionData(transactionData, entityManager, previousStoreMode);
+	}
+
+	@Override
+	public void cleanupTransaction(Object transactionData) {
+
+		if (transactionData instanceof ReplicaTransactionData) {
+
+			ReplicaTransactionData replica = (ReplicaTransactionData) transactionData;
+
+			if (!ReadReplicaRoutingDataSource.isRoutedToReplica()) {
+				replica.entityManager.setProperty(STORE_MODE,
+						replica.previousStoreMode == null ? CacheStoreMode.USE : replica.previousStoreMode);
+			}
+
+			transactionData = replica.transactionData;
+		}
+
+		super.cleanupTransaction(transactionData);
+	}
+
+	private static class ReplicaTransactionData {
+
+		private final Object transactionData;
+		private final EntityManager entityManager;
+		private final Object previousStoreMode;
+
+		ReplicaTransactionData(Object transactionData, EntityManager entityManager, Object previousStoreMode) {
+
+			this.transactionData = transactionData;
+			this.entityManager = entityManager;
+			this.previousStoreMode = previousStoreMode;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.example.springrestjsonschema;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections to one of the read replicas for read-only transactions, e.g. the ones of the query methods of
+ * {@link OrderRepository} and {@link UserRepos}, and to the primary for everything else, taking turns among the
+ * replicas. Whether a transaction is read-only is only known once it began, so connections are taken from a pool on
+ * their first statement.
+ * <p>
+ * A thread can be routed for what it does next through {@link #route(Route)}: {@link Route#PRIMARY} for all its
+ * connections, e.g. for a client reading its own writes, {@link Route#REPLICA} for the ones outside of a transaction,
+ * e.g. the lazy loading while rendering a response. A routed thread reads from the replica it was handed first until
+ * {@link #clear()}, so that the reads of a request see a single replica's state rather than ones lagging by different
+ * amounts. Threads not routed explicitly use the primary outside of transactions, so that schema management and
+ * background work never end up on a replica, and take turns among the replicas per connection otherwise.
+ *
+ * @see ReadReplicas
+ */
+class ReadReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+	private static final String PRIMARY = "primary";
+	private static final ThreadLocal<Route> ROUTE = new ThreadLocal<>();
+	private static final ThreadLocal<Integer> REPLICA = new ThreadLocal<>();
+
+	private final HikariDataSource primary;
+	private final List<HikariDataSource> replicas;
+	private final AtomicInteger next = new AtomicInteger();
+
+	ReadReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas) {
+
+		this.primary = primary;
+		this.replicas = replicas;
+
+		Map<Object, Object> targets = new HashMap<>();
+
+		targets.put(PRIMARY, primary);
+
+		for (int i = 0; i < replicas.size(); i++) {
+			targets.put(i, replicas.get(i));
+		}
+
+		AbstractRoutingDataSource router = new AbstractRoutingDataSource() {
+
+			@Override
+			protected Object determineCurrentLookupKey() {
+				return ReadReplicaRoutingDataSource.this.determineCurrentLookupKey();
+			}
+		};
+
+		router.setTargetDataSources(targets);
+		router.setLenientFallback(false);
+		router.afterPropertiesSet();
+
+		setTargetDataSource(router);
+	}
+
+	/**
+	 * Routes the connections of the current thread until {@link #clear()} is called.
+	 */
+	static void route(Route route) {
+
+		ROUTE.set(route);
+		REPLICA.remove();
+	}
+
+	static void clear() {
+
+		ROUTE.remove();
+		REPLICA.remove();
+	}
+
+	/**
+	 * Returns whether the current thread reads from the primary, no matter whether it's in a read-only transaction.
+	 */
+	static boolean isPinnedToPrimary() {
+		return ROUTE.get() == Route.PRIMARY;
+	}
+
+	/**
+	 * Returns whether the current thread reads from a replica outside of transactions too.
+	 */
+	static boolean isRoutedToReplica() {
+		return ROUTE.get() == Route.REPLICA;
+	}
+
+	HikariDataSource getPrimary() {
+		return primary;
+	}
+
+	List<HikariDataSource> getReplicas() {
+		return replicas;
+	}
+
+	@Override
+	public void close() {
+
+		replicas.forEach(HikariDataSource::close);
+		primary.close();
+	}
+
+	private Object determineCurrentLookupKey() {
+
+		Route route = ROUTE.get();
+
+		if (route == Route.PRIMARY) {
+			return PRIMARY;
+		}
+
+		boolean reading = TransactionSynchronizationManager.isActualTransactionActive()
+				? TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+				: route == Route.REPLICA;
+
+		if (!reading) {
+			return PRIMARY;
+		}
+
+		if (route == null) {
+			return nextReplica();
+		}
+
+		Integer replica = REPLICA.get();
+
+		if (replica == null) {
+			replica = nextReplica();
+			REPLICA.set(replica);
+		}
+
+		return replica;
+	}
+
+	private int nextReplica() {
+		return Math.floorMod(next.getAndIncrement(), replicas.size());
+	}
+
+	enum Route {
+		PRIMARY, REPLICA
+	}
+}
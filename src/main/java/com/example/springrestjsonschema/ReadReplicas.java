@@ -0,0 +1,138 @@
+package com.example.springrestjsonschema;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spreads the reads of the repositories over a pool of read replicas, enabled by listing their JDBC URLs in
+ * {@code restbucks.datasource.replicas}. The primary remains configured through {@code spring.datasource}, the replicas
+ * are connected to with the same credentials and {@code spring.datasource.hikari} pool settings.
+ * <p>
+ * Read-only transactions and the reads of {@code GET} requests go to a replica, writes, including {@link Order}
+ * transitions, and everything a request that may write reads go to the primary, see
+ * {@link ReadReplicaRoutingDataSource} and {@link ReadYourWritesFilter}. A client that wrote reads from the primary for
+ * {@code restbucks.datasource.max-replica-lag} afterwards, the time the replicas may take to catch up. What's read
+ * from a replica is not put into the second-level and query caches, see {@link ReadReplicaJpaDialect}.
+ * <p>
+ * Replicas that are embedded H2 databases, e.g. in tests, are given the schema Hibernate created on an embedded
+ * primary, as nothing replicates it there.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty("restbucks.datasource.replicas")
+class ReadReplicas {
+
+	/**
+	 * The only {@link DataSource}, so that Spring Boot uses it for JPA and initializes it. The primary is the pool Spring
+	 * Boot would have set up, the replicas are set up like it.
+	 */
+	@Bean
+	ReadReplicaRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+			@Value("${restbucks.datasource.replicas}") List<String> urls) {
+
+		HikariDataSource primary = pool(properties.initializeDataSourceBuilder(), environment);
+
+		if (StringUtils.hasText(properties.getName())) {
+			primary.setPoolName(properties.getName());
+		}
+
+		List<HikariDataSource> replicas = new ArrayList<>();
+
+		for (String url : urls) {
+
+			HikariDataSource replica = pool(DataSourceBuilder.create()
+					.url(url)
+					.username(properties.determineUsername())
+					.password(properties.determinePassword()), environment);
+
+			replica.setPoolName("replica-" + replicas.size());
+			replicas.add(replica);
+		}
+
+		log.info("Routing reads to {} replica(s)", replicas.size());
+
+		return new ReadReplicaRoutingDataSource(primary, replicas);
+	}
+
+	@Bean
+	static BeanPostProcessor readReplicaJpaDialect() {
+
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+
+				if (bean instanceof LocalContainerEntityManagerFactoryBean) {
+					((LocalContainerEntityManagerFactoryBean) bean).setJpaDialect(new ReadReplicaJpaDialect());
+				}
+
+				return bean;
+			}
+		};
+	}
+
+	@Bean
+	ReadYourWritesFilter readYourWritesFilter(
+			@Value("${restbucks.datasource.max-replica-lag:1s}") Duration maxReplicaLag) {
+		return new ReadYourWritesFilter(maxReplicaLag);
+	}
+
+	/**
+	 * Depends on the {@link EntityManagerFactory} for Hibernate to have created the schema on the primary, and runs
+	 * before anything reads on startup, e.g. the {@link KitchenQueue}.
+	 */
+	@Bean
+	SmartInitializingSingleton embeddedReplicaSchema(ReadReplicaRoutingDataSource dataSource,
+			EntityManagerFactory entityManagerFactory) {
+
+		return () -> {
+
+			if (!isH2(dataSource.getPrimary())) {
+				return;
+			}
+
+			List<String> schema = new JdbcTemplate(dataSource.getPrimary()).queryForList("script nodata", String.class);
+
+			dataSource.getReplicas().stream()
+					.filter(ReadReplicas::isH2)
+					.map(JdbcTemplate::new)
+					.filter(replica -> replica.queryForObject(
+							"select count(*) from information_schema.tables where table_schema = 'PUBLIC'",
+							Integer.class) == 0)
+					.forEach(replica -> replica.batchUpdate(schema.toArray(new String[0])));
+		};
+	}
+
+	private static HikariDataSource pool(DataSourceBuilder<?> builder, Environment environment) {
+
+		HikariDataSource dataSource = builder.type(HikariDataSource.class).build();
+
+		return Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource))
+				.orElse(dataSource);
+	}
+
+	private static boolean isH2(HikariDataSource dataSource) {
+		return DatabaseDriver.fromJdbcUrl(dataSource.getJdbcUrl()) == DatabaseDriver.H2;
+	}
+}
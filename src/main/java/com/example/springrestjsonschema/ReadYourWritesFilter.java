@@ -0,0 +1,94 @@
+package com.example.springrestjsonschema;
+
+import com.example.springrestjsonschema.ReadReplicaRoutingDataSource.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Routes every request to the primary or the read replicas as a whole. Requests other than {@code GET}, {@code HEAD}
+ * and {@code OPTIONS} may write, so they read from the primary, e.g. the current state of an {@link Order} a transition
+ * or an {@code If-Match} is checked against. They also hand the client a cookie that keeps its reads on the primary for
+ * as long as the replicas are allowed to lag behind, so that it sees its own writes. All other requests read from a
+ * replica, the same one for all their reads.
+ * <p>
+ * Runs ahead of the other filters, so that they read from where the request does.
+ */
+class ReadYourWritesFilter extends OncePerRequestFilter implements Ordered {
+
+	static final String COOKIE = "restbucks-primary-until";
+
+	private final Duration maxLag;
+
+	ReadYourWritesFilter(Duration maxLag) {
+		this.maxLag = maxLag;
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		if (!isSafe(request)) {
+
+			response.addCookie(primaryUntil(request, System.currentTimeMillis() + maxLag.toMillis()));
+			ReadReplicaRoutingDataSource.route(Route.PRIMARY);
+
+		} else {
+			ReadReplicaRoutingDataSource.route(isWithinLag(request) ? Route.PRIMARY : Route.REPLICA);
+		}
+
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			ReadReplicaRoutingDataSource.clear();
+		}
+	}
+
+	private boolean isWithinLag(HttpServletRequest request) {
+
+		Cookie cookie = WebUtils.getCookie(request, COOKIE);
+
+		if (cookie == null) {
+			return false;
+		}
+
+		try {
+			return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+		} catch (NumberFormatException o_O) {
+			return false;
+		}
+	}
+
+	private Cookie primaryUntil(HttpServletRequest request, long until) {
+
+		Cookie cookie = new Cookie(COOKIE, String.valueOf(until));
+
+		cookie.setPath(StringUtils.hasText(request.getContextPath()) ? request.getContextPath() : "/");
+		cookie.setMaxAge((int) Math.max(1, (maxLag.toMillis() + 999) / 1000));
+		cookie.setHttpOnly(true);
+
+		return cookie;
+	}
+
+	private static boolean isSafe(HttpServletRequest request) {
+
+		String method = request.getMethod();
+
+		return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method);
+	}
+}
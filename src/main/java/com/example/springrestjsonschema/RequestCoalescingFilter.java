@@ -0,0 +1,244 @@
+package com.example.springrestjsonschema;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.rest.core.config.RepositoryRestConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Lets concurrent identical {@code GET}s of {@code /orders/{id}} and {@code /orders/search/findByStatus} share a single
+ * pass through Spring Data REST, i.e. one repository read and one rendered response. The first request of a kind loads
+ * the resource, the ones arriving while it's in flight wait for it and are sent a copy of its status, headers and
+ * body. Nothing is kept once the load completed.
+ * <p>
+ * Requests are of the same kind if they have the same path and query, and so the same projection, accept the same
+ * media types and arrive in the same {@link WriteGeneration}. A request following a write therefore never shares a load
+ * that may have read the state before it. Conditional requests are left to {@link OrderVersionFilter}, and requests
+ * whose load failed are processed on their own, as are requests reading from the primary to see their client's own
+ * writes, see {@link ReadYourWritesFilter}.
+ */
+@Slf4j
+@Component
+class RequestCoalescingFilter extends OncePerRequestFilter {
+
+	private static final Pattern COALESCED = Pattern.compile("/orders/(\\d+|search/findByStatus)");
+	private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
+	private final WriteGeneration writes;
+	private final RepositoryRestConfiguration configuration;
+	private final Counter loads;
+	private final Counter shared;
+
+	private final ConcurrentMap<Key, CompletableFuture<Rendered>> inFlight = new ConcurrentHashMap<>();
+
+	RequestCoalescingFilter(WriteGeneration writes, RepositoryRestConfiguration configuration, MeterRegistry registry) {
+
+		this.writes = writes;
+		this.configuration = configuration;
+		this.loads = requests(registry, "load");
+		this.shared = requests(registry, "shared");
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+
+		return !HttpMethod.GET.matches(request.getMethod()) //
+				|| request.getHeader(HttpHeaders.IF_NONE_MATCH) != null //
+				|| request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null //
+				|| ReadReplicaRoutingDataSource.isPinnedToPrimary() //
+				|| !isCoalesced(request);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+
+		Key key = new Key(request.getRequestURI(), request.getQueryString(), request.getHeader(HttpHeaders.ACCEPT),
+				writes.get());
+
+		CompletableFuture<Rendered> load = new CompletableFuture<>();
+		CompletableFuture<Rendered> existing = inFlight.putIfAbsent(key, load);
+
+		if (existing != null) {
+			share(existing, request, response, chain);
+			return;
+		}
+
+		loads.increment();
+
+		RecordingResponseWrapper recording = new RecordingResponseWrapper(response);
+
+		try {
+
+			chain.doFilter(request, recording);
+
+			inFlight.remove(key, load);
+			load.complete(request.isAsyncStarted() ? null : recording.toRendered());
+
+		} catch (IOException | ServletException | RuntimeException o_O) {
+
+			inFlight.remove(key, load);
+			load.completeExceptionally(o_O);
+
+			throw o_O;
+
+		} finally {
+			recording.copyBodyToResponse();
+		}
+	}
+
+	private void share(CompletableFuture<Rendered> load, HttpServletRequest request, HttpServletResponse response,
+			FilterChain chain) throws ServletException, IOException {
+
+		shared.increment();
+
+		Rendered rendered;
+
+		try {
+			rendered = load.join();
+		} catch (CompletionException o_O) {
+			log.debug("Shared load of {} failed, processing the request on its own.", request.getRequestURI(), o_O);
+			rendered = null;
+		}
+
+		if (rendered == null) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		response.setStatus(rendered.getStatus());
+		rendered.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+
+		if (rendered.getContentType() != null) {
+			response.setContentType(rendered.getContentType());
+		}
+
+		response.setContentLength(rendered.getBody().length);
+		response.getOutputStream().write(rendered.getBody());
+	}
+
+	private boolean isCoalesced(HttpServletRequest request) {
+
+		String prefix = configuration.getBasePath().toString();
+		String path = PATH_HELPER.getPathWithinApplication(request);
+
+		return path.startsWith(prefix) && COALESCED.matcher(path.substring(prefix.length())).matches();
+	}
+
+	private static Counter requests(MeterRegistry registry, String result) {
+
+		return Counter.builder("restbucks.coalescing")
+				.description("Requests loading a resource and the ones sharing an identical request's load")
+				.tag("result", result)
+				.register(registry);
+	}
+
+	@Value
+	private static class Key {
+
+		String uri;
+		String query;
+		String accept;
+		long generation;
+	}
+
+	@Value
+	private static class Rendered {
+
+		int status;
+		String contentType;
+		MultiValueMap<String, String> headers;
+		byte[] body;
+	}
+
+	/**
+	 * Records the body and the headers the application sets, on top of passing the latter on. The content type and length
+	 * are taken from the rendered body instead.
+	 */
+	private static class RecordingResponseWrapper extends ContentCachingResponseWrapper {
+
+		private final MultiValueMap<String, String> headers = new LinkedMultiValueMap<>();
+
+		RecordingResponseWrapper(HttpServletResponse response) {
+			super(response);
+		}
+
+		@Override
+		public void setHeader(String name, String value) {
+
+			super.setHeader(name, value);
+			record(name);
+		}
+
+		@Override
+		public void addHeader(String name, String value) {
+
+			super.addHeader(name, value);
+			record(name);
+		}
+
+		@Override
+		public void setDateHeader(String name, long date) {
+
+			super.setDateHeader(name, date);
+			record(name);
+		}
+
+		@Override
+		public void addDateHeader(String name, long date) {
+
+			super.addDateHeader(name, date);
+			record(name);
+		}
+
+		@Override
+		public void setIntHeader(String name, int value) {
+
+			super.setIntHeader(name, value);
+			record(name);
+		}
+
+		@Override
+		public void addIntHeader(String name, int value) {
+
+			super.addIntHeader(name, value);
+			record(name);
+		}
+
+		/**
+		 * Returns what was rendered, {@literal null} if the response can't be replayed because it was committed, e.g. by
+		 * {@code sendError}, and is completed elsewhere.
+		 */
+		Rendered toRendered() {
+			return isCommitted() ? null : new Rendered(getStatus(), getContentType(), headers, getContentAsByteArray());
+		}
+
+		private void record(String name) {
+
+			if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && !HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+				headers.put(name, new ArrayList<>(getHeaders(name)));
+			}
+		}
+	}
+}
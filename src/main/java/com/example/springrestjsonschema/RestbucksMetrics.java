@@ -0,0 +1,367 @@
+package com.example.springrestjsonschema;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.AbstractRepositoryMetadata;
+import org.springframework.data.rest.core.support.SelfLinkProvider;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.server.mvc.TypeConstrainedMappingJackson2HttpMessageConverter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.lang.Nullable;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times the stages of a request, so that a regression in the p99 of a resource can be traced to one of them:
+ * <ul>
+ * <li>{@code restbucks.repository} the invocations of the repositories, tagged by {@code repository}, {@code method},
+ * {@code entity} and {@code exception}. Includes the transaction of methods running in their own one.</li>
+ * <li>{@code restbucks.hibernate.flush} the flushes of the persistence context, tagged by {@code type}
+ * ({@code explicit} or {@code auto}), and {@code restbucks.hibernate.flush.entities} the number of entities each one
+ * processed.</li>
+ * <li>{@code restbucks.jackson} reading and writing bodies with the JSON and HAL converters of Spring Data REST, i.e.
+ * the {@link JacksonCustomizations.RestbucksModule}, tagged by {@code operation} and {@code type}.</li>
+ * <li>{@code restbucks.hal.links} building the self links of entities, tagged by {@code entity}.</li>
+ * <li>{@code restbucks.schema.cache} and {@code restbucks.schema.generation}, see {@link JsonSchemaCache}.</li>
+ * </ul>
+ * Along with the Hibernate statistics and the {@code http.server.requests} of Spring Boot, they are exposed under
+ * {@code /actuator/metrics}, including the percentiles configured in {@code application.properties}.
+ * <p>
+ * The registry is looked up on first use, as the repositories and converters are created before it, the flush metrics
+ * are recorded through the global one.
+ */
+@Configuration
+class RestbucksMetrics {
+
+	@Bean
+	static BeanPostProcessor restbucksMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+		return new MetricsPostProcessor(SingletonSupplier.of(registry::getObject));
+	}
+
+	@Bean
+	HibernatePropertiesCustomizer flushMetricsCustomizer() {
+		return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, FlushMetrics.class.getName());
+	}
+
+	/**
+	 * Instruments the repositories, the Jackson converters of Spring Data REST and its {@link SelfLinkProvider}.
+	 */
+	static class MetricsPostProcessor implements BeanPostProcessor {
+
+		private final Supplier<MeterRegistry> registry;
+
+		MetricsPostProcessor(Supplier<MeterRegistry> registry) {
+			this.registry = registry;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+
+			if (bean instanceof Repository && bean instanceof Advised) {
+
+				Advised advised = (Advised) bean;
+
+				Arrays.stream(advised.getProxiedInterfaces())
+						.filter(Repository.class::isAssignableFrom)
+						.filter(type -> !type.getName().startsWith("org.springframework."))
+						.findFirst()
+						.ifPresent(type -> advised.addAdvice(0, new RepositoryMetrics(registry, type)));
+			}
+
+			if (bean instanceof SelfLinkProvider) {
+
+				ProxyFactory factory = new ProxyFactory(bean);
+				factory.addAdvice(new LinkMetrics(registry));
+
+				return factory.getProxy();
+			}
+
+			if ("defaultMessageConverters".equals(beanName) && bean instanceof List) {
+
+				List<HttpMessageConverter<?>> converters = (List<HttpMessageConverter<?>>) bean;
+
+				converters.replaceAll(converter -> converter instanceof TypeConstrainedMappingJackson2HttpMessageConverter //
+						? new TimedJacksonHttpMessageConverter((TypeConstrainedMappingJackson2HttpMessageConverter) converter,
+								registry)
+						: converter);
+			}
+
+			return bean;
+		}
+	}
+
+	/**
+	 * Runs first on the repository proxy, i.e. before the transaction is started and the query is executed.
+	 */
+	static class RepositoryMetrics implements MethodInterceptor {
+
+		private final Supplier<MeterRegistry> registry;
+		private final String repository;
+		private final String entity;
+		private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+		RepositoryMetrics(Supplier<MeterRegistry> registry, Class<?> repositoryInterface) {
+
+			this.registry = registry;
+			this.repository = repositoryInterface.getSimpleName();
+			this.entity = AbstractRepositoryMetadata.getMetadata(repositoryInterface).getDomainType().getSimpleName();
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+
+			long start = System.nanoTime();
+
+			try {
+
+				Object result = invocation.proceed();
+				timers.computeIfAbsent(invocation.getMethod(), method -> timer(method, "none"))
+						.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+				return result;
+
+			} catch (Throwable o_O) {
+
+				timer(invocation.getMethod(), o_O.getClass().getSimpleName())
+						.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				throw o_O;
+			}
+		}
+
+		private Timer timer(Method method, String exception) {
+
+			return Timer.builder("restbucks.repository")
+					.description("Invocations of the repositories")
+					.tag("repository", repository)
+					.tag("method", method.getName())
+					.tag("entity", entity)
+					.tag("exception", exception)
+					.register(registry.get());
+		}
+	}
+
+	static class LinkMetrics implements MethodInterceptor {
+
+		private final Supplier<MeterRegistry> registry;
+		private final Map<Class<?>, Timer> timers = new ConcurrentHashMap<>();
+
+		LinkMetrics(Supplier<MeterRegistry> registry) {
+			this.registry = registry;
+		}
+
+		@Override
+		public Object invoke(MethodInvocation invocation) throws Throwable {
+
+			Object[] arguments = invocation.getArguments();
+			Class<?> type = arguments.length == 0 || arguments[0] == null ? Object.class : arguments[0].getClass();
+
+			Timer timer = timers.computeIfAbsent(type, it -> Timer.builder("restbucks.hal.links")
+					.description("Building the self links of entities")
+					.tag("entity", it.getSimpleName())
+					.register(registry.get()));
+
+			long start = System.nanoTime();
+
+			try {
+				return invocation.proceed();
+			} finally {
+				timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Stands in for one of the converters of Spring Data REST, which selects them by {@code instanceof}, so it is one
+	 * itself. Reads and writes with the same {@link com.fasterxml.jackson.databind.ObjectMapper} and leaves the choice
+	 * of types and media types to the original.
+	 */
+	static class TimedJacksonHttpMessageConverter extends TypeConstrainedMappingJackson2HttpMessageConverter
+			implements Ordered {
+
+		private final TypeConstrainedMappingJackson2HttpMessageConverter delegate;
+		private final Supplier<MeterRegistry> registry;
+		private final Map<Class<?>, Timer> reads = new ConcurrentHashMap<>();
+		private final Map<Class<?>, Timer> writes = new ConcurrentHashMap<>();
+
+		TimedJacksonHttpMessageConverter(TypeConstrainedMappingJackson2HttpMessageConverter delegate,
+				Supplier<MeterRegistry> registry) {
+
+			super(Object.class, delegate.getSupportedMediaTypes(), delegate.getObjectMapper());
+
+			this.delegate = delegate;
+			this.registry = registry;
+		}
+
+		@Override
+		public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+			return delegate.canRead(clazz, mediaType);
+		}
+
+		@Override
+		public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+			return delegate.canRead(type, contextClass, mediaType);
+		}
+
+		@Override
+		public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+			return delegate.canWrite(clazz, mediaType);
+		}
+
+		@Override
+		public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+			return delegate.canWrite(type, clazz, mediaType);
+		}
+
+		@Override
+		public int getOrder() {
+			return delegate instanceof Ordered ? ((Ordered) delegate).getOrder() : Ordered.LOWEST_PRECEDENCE;
+		}
+
+		@Override
+		public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+
+			long start = System.nanoTime();
+
+			try {
+				return super.read(type, contextClass, inputMessage);
+			} finally {
+				record(reads, "read", getJavaType(type, contextClass).getRawClass(), start);
+			}
+		}
+
+		@Override
+		protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+
+			long start = System.nanoTime();
+
+			try {
+				return super.readInternal(clazz, inputMessage);
+			} finally {
+				record(reads, "read", clazz, start);
+			}
+		}
+
+		@Override
+		protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage)
+				throws IOException {
+
+			long start = System.nanoTime();
+
+			try {
+				super.writeInternal(object, type, outputMessage);
+			} finally {
+				record(writes, "write", typeOf(object), start);
+			}
+		}
+
+		private void record(Map<Class<?>, Timer> timers, String operation, Class<?> type, long start) {
+
+			timers.computeIfAbsent(type, it -> Timer.builder("restbucks.jackson")
+					.description("Reading and writing bodies with Jackson")
+					.tag("operation", operation)
+					.tag("type", it.getSimpleName())
+					.register(registry.get()))
+					.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+
+		/**
+		 * Returns the entity rendered by the given representation model, {@link CollectionModel} for collections.
+		 */
+		private static Class<?> typeOf(Object object) {
+
+			if (object instanceof EntityModel && ((EntityModel<?>) object).getContent() != null) {
+				return ((EntityModel<?>) object).getContent().getClass();
+			}
+
+			return object instanceof CollectionModel ? CollectionModel.class : object.getClass();
+		}
+	}
+
+	/**
+	 * Times the flushes of a session, {@code explicit} ones, including the ones on commit, and {@code auto} ones, i.e. the
+	 * dirty checks Hibernate runs before a query, whether they turn out to write or not. Hibernate creates an instance
+	 * per session, so the meters are registered with the global registry, which Spring Boot adds the application's
+	 * registry to.
+	 */
+	public static class FlushMetrics extends BaseSessionEventListener {
+
+		private static final long serialVersionUID = 1L;
+
+		private static final Timer EXPLICIT = timer("explicit");
+		private static final Timer AUTO = timer("auto");
+		private static final DistributionSummary EXPLICIT_ENTITIES = entities("explicit");
+		private static final DistributionSummary AUTO_ENTITIES = entities("auto");
+
+		private long start;
+
+		@Override
+		public void flushStart() {
+			start = System.nanoTime();
+		}
+
+		@Override
+		public void flushEnd(int numberOfEntities, int numberOfCollections) {
+
+			EXPLICIT.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			EXPLICIT_ENTITIES.record(numberOfEntities);
+		}
+
+		@Override
+		public void partialFlushStart() {
+			start = System.nanoTime();
+		}
+
+		@Override
+		public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+
+			AUTO.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			AUTO_ENTITIES.record(numberOfEntities);
+		}
+
+		private static Timer timer(String type) {
+
+			return Timer.builder("restbucks.hibernate.flush")
+					.description("Flushes of the persistence context")
+					.tag("type", type)
+					.register(Metrics.globalRegistry);
+		}
+
+		private static DistributionSummary entities(String type) {
+
+			return DistributionSummary.builder("restbucks.hibernate.flush.entities")
+					.description("Entities processed per flush")
+					.baseUnit("entities")
+					.tag("type", type)
+					.register(Metrics.globalRegistry);
+		}
+	}
+}
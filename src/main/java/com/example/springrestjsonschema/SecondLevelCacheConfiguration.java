@@ -0,0 +1,37 @@
+package com.example.springrestjsonschema;
+
+import org.ehcache.config.Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Hands Hibernate the {@link CacheManager} backing its second-level cache, with the regions configured in
+ * {@code ehcache.xml}. The JCache provider shares cache managers by URI across the JVM, so every application context
+ * gets its own URI to keep its entities apart from those of other contexts, e.g. in tests.
+ */
+@org.springframework.context.annotation.Configuration
+class SecondLevelCacheConfiguration {
+
+	@Bean(destroyMethod = "close")
+	CacheManager hibernateCacheManager() {
+
+		EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching
+				.getCachingProvider(EhcacheCachingProvider.class.getName());
+		Configuration configuration = new XmlConfiguration(getClass().getResource("/ehcache.xml"));
+
+		return provider.getCacheManager(URI.create("urn:restbucks:hibernate:" + UUID.randomUUID()), configuration);
+	}
+
+	@Bean
+	HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+		return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+	}
+}
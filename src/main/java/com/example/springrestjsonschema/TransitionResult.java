@@ -0,0 +1,69 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * The outcome of moving a single {@link Order} into another {@link Order.Status}.
+ *
+ * @see OrderTransitions
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+class TransitionResult {
+
+	Long id;
+	Outcome outcome;
+
+	/**
+	 * The status of the {@link Order} after the attempt, {@literal null} if it doesn't exist.
+	 */
+	Order.Status status;
+
+	/**
+	 * The version of the {@link Order} after the attempt, {@literal null} if it doesn't exist.
+	 */
+	Long version;
+
+	static TransitionResult transitioned(Long id, Order.Status status, Long version) {
+		return new TransitionResult(id, Outcome.TRANSITIONED, status, version);
+	}
+
+	static TransitionResult rejected(Long id, Order.Status status, Long version) {
+		return new TransitionResult(id, Outcome.REJECTED, status, version);
+	}
+
+	static TransitionResult notFound(Long id) {
+		return new TransitionResult(id, Outcome.NOT_FOUND, null, null);
+	}
+
+	static TransitionResult conflict(Long id) {
+		return new TransitionResult(id, Outcome.CONFLICT, null, null);
+	}
+
+	enum Outcome {
+
+		/**
+		 * The order is now in the requested status.
+		 */
+		TRANSITIONED,
+
+		/**
+		 * The order is not in the status the requested one requires.
+		 */
+		REJECTED,
+
+		/**
+		 * There's no order with that id.
+		 */
+		NOT_FOUND,
+
+		/**
+		 * The order kept changing concurrently and the transition was given up.
+		 */
+		CONFLICT;
+	}
+}
@@ -2,7 +2,9 @@ package com.example.springrestjsonschema;
 
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.transaction.annotation.Transactional;
 
 @RepositoryRestResource
+@Transactional(readOnly = true)
 public interface UserRepos extends CrudRepository<User, Long> {
 }
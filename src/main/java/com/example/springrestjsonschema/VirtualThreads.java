@@ -0,0 +1,80 @@
+package com.example.springrestjsonschema;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Handles requests, and with them the repository calls, on a virtual thread each instead of on the Tomcat thread
+ * pool, enabled by {@code restbucks.threads.virtual}, e.g. through the {@code virtual-threads} profile. Asynchronous
+ * Spring MVC requests run on virtual threads as well, the {@link OrderEventBroadcaster} keeps its own bounded pool.
+ * <p>
+ * A request blocked on JDBC then no longer holds a platform thread, so the number of concurrent requests is bounded by
+ * the connections Tomcat accepts and the database work by the connection pool, see
+ * {@code application-virtual-threads.properties}. {@code server.tomcat.max-threads} no longer applies.
+ * <p>
+ * The application is built for Java 11, so the virtual thread API of Java 21 is looked up reflectively and the
+ * application fails to start if it is not available.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty("restbucks.threads.virtual")
+class VirtualThreads {
+
+	/**
+	 * Virtual threads are daemon threads and not pooled, so there is nothing to shut down, and doing so before Tomcat is
+	 * stopped would reject the requests still coming in.
+	 */
+	@Bean(destroyMethod = "")
+	ExecutorService virtualThreadExecutor() {
+
+		ExecutorService executor = newVirtualThreadPerTaskExecutor("restbucks-virtual-");
+
+		log.info("Running requests on virtual threads");
+
+		return executor;
+	}
+
+	@Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+		return new TaskExecutorAdapter(virtualThreadExecutor);
+	}
+
+	@Bean
+	TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+			ExecutorService virtualThreadExecutor) {
+		return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+	}
+
+	/**
+	 * Equivalent to {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory())}.
+	 */
+	static ExecutorService newVirtualThreadPerTaskExecutor(String prefix) {
+
+		try {
+
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+
+			Object ofVirtual = Thread.class.getMethod("ofVirtual").invoke(null);
+			ofVirtual = builder.getMethod("name", String.class, long.class).invoke(ofVirtual, prefix, 0L);
+			ThreadFactory factory = (ThreadFactory) builder.getMethod("factory").invoke(ofVirtual);
+
+			return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+					.invoke(null, factory);
+
+		} catch (ReflectiveOperationException o_O) {
+			throw new IllegalStateException(String.format("Virtual threads require Java 21 or later, running on %s!",
+					System.getProperty("java.version")), o_O);
+		}
+	}
+}
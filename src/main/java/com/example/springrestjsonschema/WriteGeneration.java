@@ -0,0 +1,60 @@
+package com.example.springrestjsonschema;
+
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.configuration.Factory;
+import javax.cache.configuration.MutableCacheEntryListenerConfiguration;
+import javax.cache.event.CacheEntryCreatedListener;
+import javax.cache.event.CacheEntryEvent;
+import javax.cache.event.CacheEntryListener;
+import javax.cache.event.CacheEntryUpdatedListener;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the writes to the database made through Hibernate, so that a reader can tell whether anything changed since a
+ * point in time. Hibernate records every write in the update timestamps region of the second-level cache, bulk and
+ * native statements like the ones of {@link OrderArchiver} included, to invalidate the cached query results depending
+ * on the written tables. The generation is increased synchronously on
+ * each of those records, the last one made once the transaction completed.
+ *
+ * @see RequestCoalescingFilter
+ */
+@Component
+class WriteGeneration {
+
+	private final AtomicLong generation = new AtomicLong();
+
+	WriteGeneration(CacheManager hibernateCacheManager) {
+
+		Cache<Object, Object> timestamps = hibernateCacheManager
+				.getCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME);
+		Factory<CacheEntryListener<Object, Object>> listener = Listener::new;
+
+		timestamps.registerCacheEntryListener(
+				new MutableCacheEntryListenerConfiguration<>(listener, null, false, true));
+	}
+
+	/**
+	 * Returns the current generation, which is increased by every write.
+	 */
+	long get() {
+		return generation.get();
+	}
+
+	private class Listener
+			implements CacheEntryCreatedListener<Object, Object>, CacheEntryUpdatedListener<Object, Object> {
+
+		@Override
+		public void onCreated(Iterable<CacheEntryEvent<?, ?>> events) {
+			generation.incrementAndGet();
+		}
+
+		@Override
+		public void onUpdated(Iterable<CacheEntryEvent<?, ?>> events) {
+			generation.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,16 @@
+-- Moves the order of the line items from the rborder_line_items join table onto line_item itself, see
+-- LineItem.order and LineItem.position. Apply once to databases created before that mapping, embedded databases
+-- are created from the entities.
+
+alter table line_item add column order_id bigint;
+alter table line_item add column position integer default 0 not null;
+
+update line_item li
+   set order_id = (select j.order_id from rborder_line_items j where j.line_items_id = li.id),
+       position = (select j.line_items_order from rborder_line_items j where j.line_items_id = li.id)
+ where exists (select 1 from rborder_line_items j where j.line_items_id = li.id);
+
+alter table line_item add constraint fk_line_item_order foreign key (order_id) references rborder;
+create index ix_line_item_order_position on line_item (order_id, position);
+
+drop table rborder_line_items;
@@ -0,0 +1,30 @@
+-- Adds the tables the OrderArchiver moves taken orders into, see ArchivedOrder. Apply after order-totals.sql to
+-- databases created before the archive, embedded databases are created from the entities.
+
+create table rborder_archive (
+    id bigint not null primary key,
+    version bigint,
+    location integer,
+    ordered_date timestamp,
+    status integer,
+    total_line_items integer default 0 not null,
+    total_quantity integer default 0 not null,
+    total_small integer default 0 not null,
+    total_large integer default 0 not null,
+    total_whole integer default 0 not null,
+    total_semi integer default 0 not null
+);
+
+create table line_item_archive (
+    order_id bigint not null,
+    id bigint,
+    version bigint,
+    name varchar(255),
+    quantity integer not null,
+    milk integer,
+    size integer,
+    position integer not null
+);
+
+alter table line_item_archive add constraint fk_line_item_archive_order foreign key (order_id) references rborder_archive;
+create index ix_line_item_archive_order on line_item_archive (order_id);
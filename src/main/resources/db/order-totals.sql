@@ -0,0 +1,18 @@
+-- Adds the line item totals stored with each order, see LineItemTotals, and computes them for the existing orders.
+-- Apply after line-item-position.sql to databases created before the totals, embedded databases are created from
+-- the entities. Size and Milk are stored by ordinal, SMALL and WHOLE being 0, LARGE and SEMI 1.
+
+alter table rborder add column total_line_items integer default 0 not null;
+alter table rborder add column total_quantity integer default 0 not null;
+alter table rborder add column total_small integer default 0 not null;
+alter table rborder add column total_large integer default 0 not null;
+alter table rborder add column total_whole integer default 0 not null;
+alter table rborder add column total_semi integer default 0 not null;
+
+update rborder o
+   set total_line_items = (select count(*) from line_item li where li.order_id = o.id),
+       total_quantity = (select coalesce(sum(li.quantity), 0) from line_item li where li.order_id = o.id),
+       total_small = (select coalesce(sum(li.quantity), 0) from line_item li where li.order_id = o.id and li.size = 0),
+       total_large = (select coalesce(sum(li.quantity), 0) from line_item li where li.order_id = o.id and li.size = 1),
+       total_whole = (select coalesce(sum(li.quantity), 0) from line_item li where li.order_id = o.id and li.milk = 0),
+       total_semi = (select coalesce(sum(li.quantity), 0) from line_item li where li.order_id = o.id and li.milk = 1);
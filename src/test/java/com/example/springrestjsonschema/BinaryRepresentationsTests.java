@@ -0,0 +1,72 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.generate-unique-name=true")
+@AutoConfigureMockMvc
+class BinaryRepresentationsTests {
+
+    static final ObjectMapper JSON = new ObjectMapper();
+    static final ObjectMapper SMILE = new ObjectMapper(new SmileFactory());
+    static final ObjectMapper CBOR = new ObjectMapper(new CBORFactory());
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Test
+    void rendersSmileLikeHal() throws Exception {
+
+        Order order = orders.save(new Order(new LineItem("Latte", 2, Milk.SEMI, Size.LARGE)));
+
+        JsonNode hal = JSON.readTree(mvc.perform(get("/orders/{id}", order.getId()).accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray());
+
+        JsonNode smile = SMILE.readTree(mvc.perform(get("/orders/{id}", order.getId())
+                .accept(BinaryRepresentations.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryRepresentations.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray());
+
+        assertThat(smile).isEqualTo(hal);
+        assertThat(smile.has("id")).isFalse();
+        assertThat(smile.at("/_links/self/href").asText()).endsWith("/orders/" + order.getId());
+    }
+
+    @Test
+    void createsOrderFromCbor() throws Exception {
+
+        byte[] body = CBOR.writeValueAsBytes(JSON.readTree("{\"location\":\"IN_STORE\",\"lineItems\":["
+                + "{\"name\":\"Cappuccino\",\"quantity\":1,\"milk\":\"WHOLE\",\"size\":\"SMALL\"}]}"));
+
+        JsonNode created = CBOR.readTree(mvc.perform(post("/orders")
+                .contentType(BinaryRepresentations.APPLICATION_CBOR)
+                .accept(BinaryRepresentations.APPLICATION_CBOR)
+                .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(BinaryRepresentations.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray());
+
+        assertThat(created.get("location").asText()).isEqualTo("IN_STORE");
+        assertThat(created.at("/lineItems/0/name").asText()).isEqualTo("Cappuccino");
+        assertThat(created.at("/lineItems/0/milk").asText()).isEqualTo("WHOLE");
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.springrestjsonschema;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.generate-unique-name=true" })
+class IdAllocationTests {
+
+    @Autowired
+    OrderRepository orders;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // allocates the first identifier blocks
+        orders.save(orderWith(1));
+        statistics.clear();
+    }
+
+    @Test
+    void persistsOrderAndLineItemsInFixedNumberOfStatements() {
+
+        orders.save(orderWith(20));
+        long twentyItems = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        orders.save(orderWith(40));
+        long fortyItems = statistics.getPrepareStatementCount();
+
+        // one batched insert per table, plus at most one block allocation for the line items
+        assertThat(twentyItems).isLessThanOrEqualTo(4);
+        assertThat(fortyItems).isLessThanOrEqualTo(4);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(41);
+    }
+
+    private static Order orderWith(int lineItems) {
+
+        return new Order(IntStream.range(0, lineItems)
+                .mapToObj(i -> new LineItem("Item " + i, 1, Milk.SEMI, Size.SMALL))
+                .collect(Collectors.toList()), Location.IN_STORE);
+    }
+}
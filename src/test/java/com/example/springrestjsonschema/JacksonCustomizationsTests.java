@@ -0,0 +1,83 @@
+package com.example.springrestjsonschema;
+
+import com.example.springrestjsonschema.JacksonCustomizations.CreatorModule;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBase;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.deser.ValueInstantiator;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JacksonCustomizationsTests {
+
+    ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(JacksonAutoConfiguration.class))
+            .withUserConfiguration(JacksonCustomizations.class)
+            .withPropertyValues("spring.jackson.mapper.infer-property-mutators=false");
+
+    @Test
+    void afterburnerIsOptIn() {
+
+        runner.run(context -> assertThat(context).doesNotHaveBean(AfterburnerModule.class));
+    }
+
+    @Test
+    void afterburnerRendersAndBindsLikeTheStandardPath() {
+
+        Order order = new Order(List.of(
+                new LineItem("Latte", 2, Milk.SEMI, Size.LARGE),
+                new LineItem("Cappuccino", 1, Milk.WHOLE, Size.SMALL)), Location.IN_STORE);
+        User user = new User("jdoe", "secret");
+
+        runner.run(standard -> runner.withPropertyValues("restbucks.jackson.afterburner=true").run(afterburner -> {
+
+            ObjectMapper standardMapper = standard.getBean(ObjectMapper.class);
+            ObjectMapper afterburnerMapper = afterburner.getBean(ObjectMapper.class);
+
+            assertThat(afterburnerMapper.getRegisteredModuleIds()).contains(new AfterburnerModule().getTypeId());
+
+            String json = afterburnerMapper.writeValueAsString(order);
+            assertThat(json).isEqualTo(standardMapper.writeValueAsString(order));
+            assertThat(afterburnerMapper.writeValueAsString(user)).isEqualTo(standardMapper.writeValueAsString(user));
+
+            Order read = afterburnerMapper.readValue(json, Order.class);
+            assertThat(read.getLocation()).isEqualTo(Location.IN_STORE);
+            assertThat(read.getLineItems()).isEqualTo(order.getLineItems());
+
+            User readUser = afterburnerMapper.readValue("{\"username\":\"jdoe\",\"password\":\"secret\"}", User.class);
+            assertThat(readUser.getUsername()).isEqualTo("jdoe");
+            assertThat(readUser.getPassword()).isEqualTo("secret");
+        }));
+    }
+
+    @Test
+    void afterburnerCallsTheCreatorsDirectly() {
+
+        runner.withPropertyValues("restbucks.jackson.afterburner=true").run(context -> {
+
+            ObjectMapper mapper = context.getBean(ObjectMapper.class);
+
+            assertThat(valueInstantiator(mapper, Order.class)).isInstanceOf(CreatorModule.DirectInstantiator.class);
+            assertThat(valueInstantiator(mapper, LineItem.class)).isInstanceOf(CreatorModule.DirectInstantiator.class);
+            assertThat(valueInstantiator(mapper, User.class)).isInstanceOf(CreatorModule.DirectInstantiator.class);
+            assertThat(valueInstantiator(mapper, Flt.class)).isNotInstanceOf(CreatorModule.DirectInstantiator.class);
+        });
+    }
+
+    private static ValueInstantiator valueInstantiator(ObjectMapper mapper, Class<?> type) throws Exception {
+
+        DeserializationContext context = ((DefaultDeserializationContext) mapper.getDeserializationContext())
+                .createInstance(mapper.getDeserializationConfig(), null, null);
+
+        return ((BeanDeserializerBase) context.findRootValueDeserializer(mapper.constructType(type)))
+                .getValueInstantiator();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.rest.webmvc.json.PersistentEntityToJsonSchemaConverter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class JsonSchemaCacheTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    PersistentEntityToJsonSchemaConverter converter;
+
+    @Autowired
+    JsonSchemaCache cache;
+
+    @Autowired
+    @Qualifier("jacksonHttpMessageConverter")
+    AbstractJackson2HttpMessageConverter jacksonConverter;
+
+    @Test
+    void servesSchemaWithStrongEtag() throws Exception {
+
+        MockHttpServletResponse response = mvc.perform(get("/profile/orders").accept(JsonSchemaCache.SCHEMA_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(JsonSchemaCache.SCHEMA_JSON))
+                .andReturn().getResponse();
+
+        assertThat(response.getHeader(HttpHeaders.ETAG)).matches("\"[0-9a-f]{32}\"");
+        ObjectMapper objectMapper = jacksonConverter.getObjectMapper();
+
+        assertThat(objectMapper.readTree(response.getContentAsByteArray()))
+                .isEqualTo(objectMapper.valueToTree(converter.convert(Order.class)));
+    }
+
+    @Test
+    void answersMatchingEtagWithNotModified() throws Exception {
+
+        String etag = mvc.perform(get("/profile/users").accept(JsonSchemaCache.SCHEMA_JSON))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/profile/users").accept(JsonSchemaCache.SCHEMA_JSON).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void servesUnsupportedLocalesTheDefaultSchema() {
+
+        JsonSchemaCache.CachedSchema schema = cache.getSchema(Order.class, Locale.getDefault());
+
+        assertThat(cache.getSchema(Order.class, Locale.forLanguageTag("xx-YY"))).isSameAs(schema);
+        assertThat(cache.getSchema(Order.class, Locale.forLanguageTag("zz"))).isSameAs(schema);
+    }
+
+    @Test
+    void leavesOtherProfileRepresentationsToSpringDataRest() throws Exception {
+
+        mvc.perform(get("/profile/orders").accept("application/alps+json"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+}
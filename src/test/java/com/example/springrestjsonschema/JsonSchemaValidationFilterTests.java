@@ -0,0 +1,110 @@
+package com.example.springrestjsonschema;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.generate-unique-name=true")
+@AutoConfigureMockMvc
+class JsonSchemaValidationFilterTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Test
+    void reportsAllViolationsBeforeBinding() throws Exception {
+
+        long before = orders.count();
+
+        mvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"location\":\"IN_STORE\",\"status\":\"PAID\",\"discount\":{\"percent\":100},"
+                        + "\"lineItems\":[{\"name\":\"Latte\",\"quantity\":1,\"milk\":\"SEMI\",\"size\":\"LARGE\"},"
+                        + "{\"name\":\"Mocha\",\"quantity\":\"two\",\"milk\":\"OAT\",\"size\":\"SMALL\"}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors", hasSize(4)))
+                .andExpect(jsonPath("$.errors[0].entity").value("Order"))
+                .andExpect(jsonPath("$.errors[0].property").value("status"))
+                .andExpect(jsonPath("$.errors[0].message").value("is read-only"))
+                .andExpect(jsonPath("$.errors[1].property").value("discount"))
+                .andExpect(jsonPath("$.errors[2].property").value("lineItems[1].quantity"))
+                .andExpect(jsonPath("$.errors[2].invalidValue").value("two"))
+                .andExpect(jsonPath("$.errors[3].property").value("lineItems[1].milk"))
+                .andExpect(jsonPath("$.errors[3].message").value("must be one of [WHOLE, SEMI]"));
+
+        assertThat(orders.count()).isEqualTo(before);
+    }
+
+    @Test
+    void passesValidBodiesOn() throws Exception {
+
+        mvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"location\":\"IN_STORE\","
+                        + "\"lineItems\":[{\"name\":\"Latte\",\"quantity\":1,\"milk\":\"SEMI\",\"size\":\"LARGE\"}]}"))
+                .andExpect(status().isCreated());
+
+        Order order = orders.save(new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE)));
+
+        mvc.perform(patch("/orders/{id}", order.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"PAYMENT_EXPECTED\"}"))
+                .andExpect(status().is2xxSuccessful());
+    }
+
+    @Test
+    void skipsHalPropertiesOnAnyLevel() throws Exception {
+
+        mvc.perform(post("/orders")
+                .contentType(MediaTypes.HAL_JSON)
+                .content("{\"location\":\"IN_STORE\","
+                        + "\"lineItems\":[{\"name\":\"Latte\",\"quantity\":1,\"milk\":\"SEMI\",\"size\":\"LARGE\","
+                        + "\"_embedded\":{\"order\":{\"status\":\"PAID\"}},"
+                        + "\"_links\":{\"order\":{\"href\":\"http://localhost/orders/1\"}}}],"
+                        + "\"_links\":{\"self\":{\"href\":\"http://localhost/orders/1\"}}}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void rejectsBodiesExceedingMaximumSize() throws Exception {
+
+        long before = orders.count();
+        String name = String.join("", Collections.nCopies(1024 * 1024, "x"));
+
+        mvc.perform(post("/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"location\":\"IN_STORE\",\"lineItems\":[{\"name\":\"" + name + "\","
+                        + "\"quantity\":1,\"milk\":\"SEMI\",\"size\":\"LARGE\"}]}"))
+                .andExpect(status().isPayloadTooLarge());
+
+        assertThat(orders.count()).isEqualTo(before);
+    }
+
+    @Test
+    void rejectsMalformedJson() throws Exception {
+
+        mvc.perform(post("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"jdoe\",\"password\":"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].entity").value("User"))
+                .andExpect(jsonPath("$.errors[0].message").value(containsString("malformed JSON")));
+    }
+}
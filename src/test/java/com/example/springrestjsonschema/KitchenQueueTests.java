@@ -0,0 +1,152 @@
+package com.example.springrestjsonschema;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import com.jayway.jsonpath.JsonPath;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.generate-unique-name=true")
+@AutoConfigureMockMvc
+class KitchenQueueTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Autowired
+    KitchenQueue queue;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void handsOutEachPaidOrderOnce() throws Exception {
+
+        List<Long> paid = IntStream.range(0, 20)
+                .mapToObj(i -> orders.save(new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE))))
+                .map(order -> orders.save(order.markPaid()))
+                .map(Order::getId)
+                .collect(Collectors.toList());
+
+        List<Long> claimed = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (Optional<TransitionResult> result = queue.claim(); result.isPresent(); result = queue.claim()) {
+                    claimed.add(result.get().getId());
+                }
+            });
+        }
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(claimed).doesNotHaveDuplicates().containsAll(paid);
+        assertThat(orders.findAllById(paid)).extracting(Order::getStatus).containsOnly(Order.Status.PREPARING);
+    }
+
+    @Test
+    void rebuildsFromDatabase() throws Exception {
+
+        Long id = orders.save(new Order(new LineItem("Mocha", 1, Milk.WHOLE, Size.SMALL))).getId();
+
+        // bypasses the events the queue usually picks up
+        jdbc.update("update rborder set status = ?, version = version + 1 where id = ?",
+                Order.Status.PAID.ordinal(), id);
+        entityManagerFactory.getCache().evict(Order.class, id);
+
+        queue.rebuild();
+
+        List<Long> claimed = new ArrayList<>();
+
+        for (MvcResult result = claim(); result.getResponse().getStatus() == 200; result = claim()) {
+            claimed.add(((Number) JsonPath.read(result.getResponse().getContentAsString(), "$.id"))
+                    .longValue());
+        }
+
+        assertThat(claimed).contains(id);
+
+        mvc.perform(post("/kitchen/claims")).andExpect(status().isNoContent());
+    }
+
+    @Test
+    void requeuesOrdersThatCouldNotBeMoved() {
+
+        Order order = orders.save(new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE)));
+        Long id = orders.save(order.markPaid()).getId();
+        AtomicInteger attempts = new AtomicInteger();
+
+        // fails the first transition, gives up on the second and lets the third one through
+        OrderTransitions transitions = new OrderTransitions(orders, entityManager, transactionManager, 5) {
+
+            @Override
+            TransitionResult transition(Long id, Order.Status status) {
+
+                switch (attempts.incrementAndGet()) {
+                    case 1:
+                        throw new QueryTimeoutException("Timed out");
+                    case 2:
+                        return TransitionResult.conflict(id);
+                    default:
+                        return super.transition(id, status);
+                }
+            }
+        };
+
+        KitchenQueue kitchen = new KitchenQueue(orders, transitions);
+
+        kitchen.on(new OrderStatusChanged(id, Order.Status.PAYMENT_EXPECTED, Order.Status.PAID));
+
+        assertThatThrownBy(kitchen::claim).isInstanceOf(QueryTimeoutException.class);
+        assertThat(kitchen.size()).isEqualTo(1);
+
+        assertThat(kitchen.claim()).isEmpty();
+        assertThat(kitchen.size()).isEqualTo(1);
+
+        assertThat(kitchen.claim()).hasValueSatisfying(result -> {
+            assertThat(result.getId()).isEqualTo(id);
+            assertThat(result.getStatus()).isEqualTo(Order.Status.PREPARING);
+        });
+        assertThat(kitchen.size()).isZero();
+    }
+
+    private MvcResult claim() throws Exception {
+        return mvc.perform(post("/kitchen/claims")).andReturn();
+    }
+}
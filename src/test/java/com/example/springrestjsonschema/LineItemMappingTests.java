@@ -0,0 +1,101 @@
+package com.example.springrestjsonschema;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.generate-unique-name=true")
+class LineItemMappingTests {
+
+    @Autowired
+    OrderRepository orders;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    TransactionTemplate transactions;
+    Statistics statistics;
+    Order order;
+
+    @BeforeEach
+    void setUp() {
+
+        transactions = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        order = orders.save(new Order(IntStream.range(0, 100)
+                .mapToObj(i -> new LineItem("Item " + i, 1, Milk.SEMI, Size.LARGE))
+                .collect(Collectors.toList()), Location.IN_STORE));
+    }
+
+    @Test
+    void appendsLineItemWithoutTouchingOthers() {
+
+        int statements = edit(order -> order.add(new LineItem("Mocha", 2, Milk.WHOLE, Size.SMALL)));
+
+        assertThat(statements).isLessThanOrEqualTo(4); // select order, select line items, insert, version update
+        assertThat(names()).hasSize(101).endsWith("Mocha");
+
+        Order updated = orders.findById(order.getId()).get();
+
+        assertThat(updated.getVersion()).isEqualTo(order.getVersion() + 1);
+        assertThat(updated.getTotals()).isEqualTo(new LineItemTotals(101, 102, 2, 100, 2, 100));
+    }
+
+    @Test
+    void removesLineItemWithoutRenumberingFollowingOnes() {
+
+        int statements = edit(order -> order.remove(order.getLineItems().get(50)));
+
+        assertThat(statements).isLessThanOrEqualTo(4); // select order, select line items, delete, version update
+        assertThat(names()).hasSize(99).doesNotContain("Item 50").containsSequence("Item 49", "Item 51");
+
+        edit(order -> order.add(new LineItem("Mocha", 2, Milk.WHOLE, Size.SMALL)));
+
+        assertThat(names()).hasSize(100).endsWith("Mocha");
+        assertThat(orders.findById(order.getId()).get().getTotals()).isEqualTo(new LineItemTotals(100, 101, 2, 99, 2, 99));
+    }
+
+    @Test
+    void findsOrdersByTotalQuantityWithoutReadingLineItems() {
+
+        statistics.clear();
+
+        assertThat(orders.findByTotalsQuantityGreaterThanEqual(100, PageRequest.of(0, 1000)))
+                .extracting(Order::getId)
+                .contains(order.getId());
+        assertThat(statistics.getEntityStatistics(LineItem.class.getName()).getLoadCount()).isZero();
+    }
+
+    private int edit(Consumer<Order> edit) {
+
+        statistics.clear();
+
+        transactions.executeWithoutResult(status -> edit.accept(orders.findById(order.getId()).get()));
+
+        return (int) statistics.getPrepareStatementCount();
+    }
+
+    private List<String> names() {
+
+        return transactions.execute(status -> orders.findById(order.getId()).get().getLineItems().stream()
+                .map(LineItem::getName)
+                .collect(Collectors.toList()));
+    }
+}
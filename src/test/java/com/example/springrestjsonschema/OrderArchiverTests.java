@@ -0,0 +1,128 @@
+package com.example.springrestjsonschema;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = { "spring.datasource.generate-unique-name=true", "restbucks.archive.batch-size=2" })
+@AutoConfigureMockMvc
+class OrderArchiverTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Autowired
+    OrderTransitions transitions;
+
+    @Autowired
+    OrderArchiver archiver;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Test
+    void movesTakenOrdersInBatches() {
+
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+        List<Long> taken = IntStream.range(0, 5).mapToObj(i -> taken()).collect(Collectors.toList());
+        Long open = orders.save(new Order(new LineItem("Mocha", 1, Milk.WHOLE, Size.SMALL))).getId();
+
+        archiver.archive(before);
+
+        assertThat(orders.findIdsByStatus(Order.Status.TAKEN)).containsAll(taken);
+
+        assertThat(archiver.archive(LocalDateTime.now().plusSeconds(1))).isGreaterThanOrEqualTo(5);
+
+        assertThat(orders.findIdsByStatus(Order.Status.TAKEN)).doesNotContainAnyElementsOf(taken);
+        assertThat(orders.findIdsByStatus(Order.Status.PAYMENT_EXPECTED)).contains(open);
+        assertThat(jdbc.queryForObject("select count(*) from line_item where order_id in (?, ?, ?, ?, ?)",
+                Integer.class, taken.toArray())).isZero();
+        assertThat(jdbc.queryForObject("select count(*) from line_item_archive where order_id in (?, ?, ?, ?, ?)",
+                Integer.class, taken.toArray())).isEqualTo(10);
+    }
+
+    @Test
+    void servesAndDeletesArchivedOrders() throws Exception {
+
+        Long id = taken();
+        Order order = orders.findById(id).get();
+
+        archiver.archive(LocalDateTime.now().plusSeconds(1));
+
+        assertThat(orders.existsById(id)).isFalse();
+        assertThat(orders.findById(id)).hasValueSatisfying(archived -> {
+            assertThat(archived.getVersion()).isEqualTo(order.getVersion());
+            assertThat(archived.getOrderedDate()).isEqualTo(order.getOrderedDate());
+            assertThat(archived.getLineItems()).extracting(LineItem::getName, LineItem::getQuantity)
+                    .containsExactly(tuple("Latte", 1), tuple("Mocha", 2));
+            assertThat(archived.getTotals()).isEqualTo(order.getTotals());
+        });
+
+        mvc.perform(get("/orders/{id}", id).accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("TAKEN"))
+                .andExpect(jsonPath("$.lineItems", hasSize(2)))
+                .andExpect(jsonPath("$.lineItems[1].name").value("Mocha"));
+
+        mvc.perform(get("/orders/{id}", Long.MAX_VALUE).accept(MediaTypes.HAL_JSON))
+                .andExpect(status().isNotFound());
+
+        mvc.perform(delete("/orders/{id}", id)).andExpect(status().isNoContent());
+        mvc.perform(get("/orders/{id}", id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rejectsWritesToArchivedOrders() throws Exception {
+
+        Long id = taken();
+
+        archiver.archive(LocalDateTime.now().plusSeconds(1));
+
+        long before = orders.count();
+
+        mvc.perform(patch("/orders/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"TAKEN\"}"))
+                .andExpect(status().isConflict());
+        mvc.perform(post("/orders/{id}/transitions/{status}", id, Order.Status.TAKEN))
+                .andExpect(status().isNotFound());
+
+        assertThat(orders.count()).isEqualTo(before);
+        assertThat(orders.existsById(id)).isFalse();
+    }
+
+    private Long taken() {
+
+        Long id = orders.save(new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE),
+                new LineItem("Mocha", 2, Milk.WHOLE, Size.SMALL))).getId();
+
+        Stream.of(Order.Status.PAID, Order.Status.PREPARING, Order.Status.READY, Order.Status.TAKEN)
+                .forEach(status -> transitions.transition(id, status));
+
+        return id;
+    }
+}
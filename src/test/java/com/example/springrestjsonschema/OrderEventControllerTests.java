@@ -0,0 +1,68 @@
+package com.example.springrestjsonschema;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest(properties = "spring.datasource.generate-unique-name=true")
+@AutoConfigureMockMvc
+class OrderEventControllerTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Autowired
+    OrderTransitions transitions;
+
+    @Test
+    void streamsCommittedStatusChangesOfSubscribedOrder() throws Exception {
+
+        Long watched = orders.save(new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE))).getId();
+        Long other = orders.save(new Order(new LineItem("Mocha", 1, Milk.WHOLE, Size.SMALL))).getId();
+
+        MvcResult result = mvc.perform(get("/orders/events")
+                .param("orderId", watched.toString())
+                .param("status", "PAID", "READY"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        transitions.transition(other, Order.Status.PAID);
+        transitions.transition(watched, Order.Status.PAID);
+        transitions.transition(watched, Order.Status.PREPARING);
+        transitions.transition(watched, Order.Status.READY);
+
+        String content = awaitContent(result.getResponse(), "\"READY\"");
+
+        assertThat(content).startsWith("event:status\ndata:{\"orderId\":" + watched + ",\"previous\":\"PAYMENT_EXPECTED\"");
+        assertThat(content).contains("\"status\":\"PAID\"", "\"status\":\"READY\"")
+                .doesNotContain("\"status\":\"PREPARING\"")
+                .doesNotContain("\"orderId\":" + other + ",");
+        assertThat(result.getResponse().getContentType()).startsWith("text/event-stream");
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (!response.getContentAsString().contains(expected)) {
+
+            assertThat(System.nanoTime()).as("Timed out waiting for %s", expected).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+
+        return response.getContentAsString();
+    }
+}
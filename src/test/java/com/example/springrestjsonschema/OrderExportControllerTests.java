@@ -0,0 +1,73 @@
+package com.example.springrestjsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.generate-unique-name=true")
+@AutoConfigureMockMvc
+class OrderExportControllerTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @Test
+    void exportsEachOrderWithAllLineItemsOnItsOwnLine() throws Exception {
+
+        List<Long> created = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            created.add(orders.save(new Order(Arrays.asList(
+                    new LineItem("Latte", 1, Milk.SEMI, Size.LARGE),
+                    new LineItem("Mocha", 2, Milk.WHOLE, Size.SMALL)), Location.TAKE_AWAY)).getId());
+        }
+
+        MvcResult result = mvc.perform(get("/orders/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(OrderIngestController.APPLICATION_NDJSON_VALUE))
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+
+        assertThat(body).endsWith("\n");
+
+        String[] lines = body.split("\n");
+        List<Long> ids = new ArrayList<>();
+        Map<Long, Integer> lineItems = new HashMap<>();
+
+        for (String line : lines) {
+
+            JsonNode order = mapper.readTree(line);
+
+            ids.add(order.get("id").asLong());
+            lineItems.put(order.get("id").asLong(), order.get("lineItems").size());
+        }
+
+        // a row per line item must not turn into a line per line item
+        assertThat(lines).hasSize((int) orders.count());
+        assertThat(ids).doesNotHaveDuplicates().isSorted();
+        created.forEach(id -> assertThat(lineItems).containsEntry(id, 2));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.springrestjsonschema;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.generate-unique-name=true" })
+@AutoConfigureMockMvc
+class OrderFetchPlanTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        if (orders.count() == 0) {
+            orders.saveAll(IntStream.range(0, 30)
+                    .mapToObj(i -> new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE),
+                            new LineItem("Mocha", 1, Milk.WHOLE, Size.SMALL)))
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void rendersCollectionResourceInConstantNumberOfStatements() throws Exception {
+
+        long five = statementsFor(get("/orders").param("projection", "detail").param("size", "5"), 5,
+                "lineItems[1].name");
+        long twenty = statementsFor(get("/orders").param("projection", "detail").param("size", "20"), 20,
+                "lineItems[1].name");
+
+        assertThat(twenty).isEqualTo(five);
+    }
+
+    @Test
+    void rendersSummariesFromPageAndCountQueryOnly() throws Exception {
+
+        long statements = statementsFor(get("/orders").param("projection", "summary").param("size", "20"), 20,
+                "status");
+
+        assertThat(statements).isEqualTo(2);
+
+        mvc.perform(get("/orders?projection=summary"))
+                .andExpect(jsonPath("$._embedded.orders[0].status").value("PAYMENT_EXPECTED"))
+                .andExpect(jsonPath("$._embedded.orders[0].orderedDate").exists())
+                .andExpect(jsonPath("$._embedded.orders[0].lineItems").doesNotExist())
+                .andExpect(jsonPath("$._embedded.orders[0].totals.lineItems").value(2))
+                .andExpect(jsonPath("$._embedded.orders[0].totals.large").value(1))
+                .andExpect(jsonPath("$._embedded.orders[0]._links.self.href", startsWith("http://localhost/orders/")))
+                .andExpect(jsonPath("$._links.next.href", containsString("projection=summary")))
+                .andExpect(jsonPath("$._links.search.href").value("http://localhost/orders/search"))
+                .andExpect(jsonPath("$._links.profile.href").value("http://localhost/profile/orders"));
+    }
+
+    @Test
+    void rendersLineItemsWithoutTheirOrder() throws Exception {
+
+        Long id = orders.findAll().iterator().next().getId();
+
+        mvc.perform(get("/orders/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lineItems", hasSize(2)))
+                .andExpect(jsonPath("$.lineItems[*]._embedded").isEmpty())
+                .andExpect(jsonPath("$.lineItems[*]._links").isEmpty());
+    }
+
+    @Test
+    void rendersItemResourceInSingleStatement() throws Exception {
+
+        Long id = orders.findAll().iterator().next().getId();
+
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        statistics.clear();
+
+        mvc.perform(get("/orders/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lineItems", hasSize(2)));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rendersItemResourceInSummaryProjection() throws Exception {
+
+        Long id = orders.findAll().iterator().next().getId();
+
+        mvc.perform(get("/orders/{id}", id).param("projection", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PAYMENT_EXPECTED"))
+                .andExpect(jsonPath("$.totals.lineItems").value(2))
+                .andExpect(jsonPath("$.lineItems").doesNotExist());
+    }
+
+    @Test
+    void rendersSearchResourceInConstantNumberOfStatements() throws Exception {
+
+        long five = statementsFor(get("/orders/search/findByStatus").param("status", "PAYMENT_EXPECTED")
+                .param("projection", "detail").param("size", "5"), 5, "lineItems[1].name");
+        long twenty = statementsFor(get("/orders/search/findByStatus").param("status", "PAYMENT_EXPECTED")
+                .param("projection", "detail").param("size", "20"), 20, "lineItems[1].name");
+
+        assertThat(twenty).isEqualTo(five);
+    }
+
+    /**
+     * Returns the statements it took to render the given request, checking that each of the expected orders was
+     * rendered with the given property.
+     */
+    private long statementsFor(MockHttpServletRequestBuilder request, int expectedOrders, String property)
+            throws Exception {
+
+        // measures the database round trips rather than the second-level and query cache
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        statistics.clear();
+
+        mvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.orders", hasSize(expectedOrders)))
+                .andExpect(jsonPath("$._embedded.orders[*]." + property, hasSize(expectedOrders)));
+
+        return statistics.getPrepareStatementCount();
+    }
+}
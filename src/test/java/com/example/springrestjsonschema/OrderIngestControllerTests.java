@@ -0,0 +1,74 @@
+package com.example.springrestjsonschema;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = { "restbucks.ingest.chunk-size=2", "spring.datasource.generate-unique-name=true" })
+@AutoConfigureMockMvc
+class OrderIngestControllerTests {
+
+    static final String ORDER = "{\"location\":\"IN_STORE\",\"lineItems\":[{\"name\":\"Latte\",\"quantity\":1,\"milk\":\"SEMI\",\"size\":\"LARGE\"}]}";
+    static final String INVALID_ORDER = "{\"location\":\"ON_THE_MOON\",\"lineItems\":[]}";
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Test
+    void ingestsNewlineDelimitedOrdersAndRejectsInvalidOnes() throws Exception {
+
+        long before = orders.count();
+
+        mvc.perform(post("/orders/bulk")
+                .contentType(OrderIngestController.APPLICATION_NDJSON_VALUE)
+                .content(String.join("\n", ORDER, INVALID_ORDER, ORDER, ORDER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].index", contains(0, 1, 2, 3)))
+                .andExpect(jsonPath("$[*].status", contains("CREATED", "REJECTED", "CREATED", "CREATED")))
+                .andExpect(jsonPath("$[0].href", startsWith("http://localhost/orders/")))
+                .andExpect(jsonPath("$[1].error", containsString("ON_THE_MOON")));
+
+        assertThat(orders.count()).isEqualTo(before + 3);
+    }
+
+    @Test
+    void reportsOnlyOrdersFailingToPersistAsFailed() throws Exception {
+
+        long before = orders.count();
+        String tooLong = ORDER.replace("Latte", String.join("", Collections.nCopies(256, "x")));
+
+        mvc.perform(post("/orders/bulk")
+                .contentType(OrderIngestController.APPLICATION_NDJSON_VALUE)
+                .content(String.join("\n", ORDER, tooLong, ORDER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].status", contains("CREATED", "FAILED", "CREATED")))
+                .andExpect(jsonPath("$[1].error").value("could not be persisted"));
+
+        assertThat(orders.count()).isEqualTo(before + 2);
+    }
+
+    @Test
+    void ingestsJsonArray() throws Exception {
+
+        mvc.perform(post("/orders/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + String.join(",", ORDER, ORDER, ORDER) + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[*].status", everyItem(is("CREATED"))));
+    }
+}
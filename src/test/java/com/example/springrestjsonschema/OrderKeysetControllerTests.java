@@ -0,0 +1,79 @@
+package com.example.springrestjsonschema;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.generate-unique-name=true")
+@AutoConfigureMockMvc
+class OrderKeysetControllerTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Test
+    void followsNextLinksThroughAllOrders() throws Exception {
+
+        orders.saveAll(IntStream.range(0, 5)
+                .mapToObj(i -> new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE)))
+                .collect(Collectors.toList()));
+
+        List<String> expected = StreamSupport.stream(orders.findAll().spliterator(), false)
+                .map(order -> "http://localhost/orders/" + order.getId())
+                .collect(Collectors.toList());
+
+        List<String> seen = new ArrayList<>();
+        String next = "http://localhost/orders/keyset?size=2";
+
+        while (next != null) {
+
+            String body = mvc.perform(get(next))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            seen.addAll(JsonPath.read(body, "$._embedded.orders[*]._links.self.href"));
+
+            List<String> nextLinks = JsonPath.read(body, "$._links[?(@.next)].next.href");
+            next = nextLinks.isEmpty() ? null : nextLinks.get(0);
+        }
+
+        assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void rejectsInvalidCursor() throws Exception {
+
+        mvc.perform(get("/orders/keyset").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void pagesStatusSearch() throws Exception {
+
+        orders.save(new Order(new LineItem("Mocha", 1, Milk.WHOLE, Size.SMALL)));
+
+        mvc.perform(get("/orders/search/findByStatus").param("status", "PAYMENT_EXPECTED").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.orders", hasSize(1)))
+                .andExpect(jsonPath("$.page.size").value(1))
+                .andExpect(jsonPath("$._links.next.href").exists());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.springrestjsonschema;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.generate-unique-name=true")
+@AutoConfigureMockMvc
+class OrderTransitionControllerTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Autowired
+    OrderTransitions transitions;
+
+    @Test
+    void movesOrderThroughItsStatuses() throws Exception {
+
+        Order order = orders.save(new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE)));
+
+        mvc.perform(post("/orders/{id}/transitions/{status}", order.getId(), "PAID"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + (order.getVersion() + 1) + "\""))
+                .andExpect(jsonPath("$.outcome").value("TRANSITIONED"))
+                .andExpect(jsonPath("$.status").value("PAID"));
+
+        mvc.perform(post("/orders/{id}/transitions/{status}", order.getId(), "PREPARING"))
+                .andExpect(status().isOk());
+
+        Order reloaded = orders.findById(order.getId()).get();
+
+        assertThat(reloaded.getStatus()).isEqualTo(Order.Status.PREPARING);
+        assertThat(reloaded.getVersion()).isEqualTo(order.getVersion() + 2);
+
+        mvc.perform(get("/orders/{id}", order.getId()))
+                .andExpect(jsonPath("$.lineItems", hasSize(1)));
+    }
+
+    @Test
+    void rejectsTransitionTheStateMachineDoesNotAllow() throws Exception {
+
+        Order order = orders.save(new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE)));
+
+        mvc.perform(post("/orders/{id}/transitions/{status}", order.getId(), "TAKEN"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.outcome").value("REJECTED"))
+                .andExpect(jsonPath("$.status").value("PAYMENT_EXPECTED"));
+
+        mvc.perform(post("/orders/{id}/transitions/{status}", Long.MAX_VALUE, "PAID"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void transitionsBatchOfOrders() throws Exception {
+
+        Long first = orders.save(new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE))).getId();
+        Long second = orders.save(new Order(new LineItem("Mocha", 1, Milk.SEMI, Size.LARGE))).getId();
+
+        mvc.perform(post("/orders/transitions/{status}", "PAID")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + first + "," + Long.MAX_VALUE + "," + second + "," + first + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].outcome", contains("TRANSITIONED", "NOT_FOUND", "TRANSITIONED", "REJECTED")));
+    }
+
+    @Test
+    void appliesConcurrentTransitionsExactlyOnce() throws Exception {
+
+        Long id = orders.save(new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE))).getId();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+
+            List<Callable<TransitionResult>> tasks = IntStream.range(0, 8)
+                    .<Callable<TransitionResult>> mapToObj(i -> () -> transitions.transition(id, Order.Status.PAID))
+                    .collect(Collectors.toList());
+
+            List<TransitionResult.Outcome> outcomes = executor.invokeAll(tasks).stream()
+                    .map(OrderTransitionControllerTests::await)
+                    .map(TransitionResult::getOutcome)
+                    .collect(Collectors.toList());
+
+            assertThat(outcomes).containsOnlyOnce(TransitionResult.Outcome.TRANSITIONED)
+                    .doesNotContain(TransitionResult.Outcome.CONFLICT);
+
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+
+        try {
+            return future.get();
+        } catch (Exception o_O) {
+            throw new IllegalStateException(o_O);
+        }
+    }
+}
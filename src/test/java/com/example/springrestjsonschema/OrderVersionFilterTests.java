@@ -0,0 +1,95 @@
+package com.example.springrestjsonschema;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = { "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.generate-unique-name=true" })
+@AutoConfigureMockMvc
+class OrderVersionFilterTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+    Order order;
+
+    @BeforeEach
+    void setUp() {
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        order = orders.save(new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE)));
+    }
+
+    @Test
+    void answersMatchingIfNoneMatchWithoutLoadingOrder() throws Exception {
+
+        String etag = mvc.perform(get("/orders/{id}", order.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        statistics.clear();
+
+        mvc.perform(get("/orders/{id}", order.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rendersOrderForStaleIfNoneMatch() throws Exception {
+
+        mvc.perform(get("/orders/{id}", order.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"42\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + order.getVersion() + "\""));
+    }
+
+    @Test
+    void rejectsStaleIfMatchWithoutLoadingOrder() throws Exception {
+
+        statistics.clear();
+
+        mvc.perform(patch("/orders/{id}", order.getId())
+                .header(HttpHeaders.IF_MATCH, "\"42\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"location\":\"IN_STORE\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void passesMatchingIfMatchOnToSpringDataRest() throws Exception {
+
+        mvc.perform(patch("/orders/{id}", order.getId())
+                .header(HttpHeaders.IF_MATCH, "\"" + order.getVersion() + "\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"))
+                .andExpect(status().is2xxSuccessful());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.springrestjsonschema;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PropertyModelTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    PropertyModel model;
+
+    @Test
+    void followsCreatorsMixinsAndIgnorals() {
+
+        PropertyModel.TypeModel order = model.getModel(Order.class).get();
+
+        assertThat(order.getProperty("lineItems").get().isCreatorBound()).isTrue();
+        assertThat(order.getProperty("status").get().isReadable()).isTrue();
+        assertThat(order.getProperty("status").get().isWritable()).isFalse();
+        assertThat(order.getProperty("id").get().isIgnored()).isTrue();
+        assertThat(order.getProperty("version")).isEmpty();
+
+        PropertyModel.TypeModel user = model.getModel(User.class).get();
+
+        assertThat(user.getProperty("password").get().isReadable()).isFalse();
+        assertThat(user.getProperty("password").get().isWritable()).isTrue();
+        assertThat(user.isUnknownPropertiesIgnored()).isTrue();
+    }
+
+    @Test
+    void alignsSchemaWithModel() throws Exception {
+
+        mvc.perform(get("/profile/users").accept(JsonSchemaCache.SCHEMA_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.properties.password.writeOnly").value(true))
+                .andExpect(jsonPath("$.properties.password.type").value("string"))
+                .andExpect(jsonPath("$.properties.status.readOnly").value(true));
+    }
+
+    @Test
+    void exposesModelAsEndpoint() throws Exception {
+
+        mvc.perform(get("/actuator/propertymodel/Order"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.properties.status.writable").value(false))
+                .andExpect(jsonPath("$.properties.location.creatorBound").value(true));
+
+        mvc.perform(get("/actuator/propertymodel/Flt"))
+                .andExpect(status().isNotFound());
+    }
+}
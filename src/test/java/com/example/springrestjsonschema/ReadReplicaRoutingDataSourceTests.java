@@ -0,0 +1,84 @@
+package com.example.springrestjsonschema;
+
+import com.example.springrestjsonschema.ReadReplicaRoutingDataSource.Route;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaRoutingDataSourceTests {
+
+    ReadReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ReadReplicaRoutingDataSource(pool("primary"),
+                Arrays.asList(pool("replica-0"), pool("replica-1")));
+    }
+
+    @AfterEach
+    void tearDown() {
+
+        ReadReplicaRoutingDataSource.clear();
+        dataSource.close();
+    }
+
+    @Test
+    void readsFromSingleReplicaPerRoute() throws Exception {
+
+        Set<String> requests = new HashSet<>();
+
+        for (int request = 0; request < 2; request++) {
+
+            ReadReplicaRoutingDataSource.route(Route.REPLICA);
+
+            String replica = url();
+
+            assertThat(replica).contains("replica-");
+            assertThat(url()).isEqualTo(replica);
+            assertThat(url()).isEqualTo(replica);
+
+            requests.add(replica);
+            ReadReplicaRoutingDataSource.clear();
+        }
+
+        assertThat(requests).hasSize(2);
+    }
+
+    @Test
+    void readsFromPrimaryUnlessRouted() throws Exception {
+
+        assertThat(url()).contains("primary");
+
+        ReadReplicaRoutingDataSource.route(Route.PRIMARY);
+
+        assertThat(url()).contains("primary");
+    }
+
+    /**
+     * Returns the URL of the database a new connection's first statement runs against.
+     */
+    private String url() throws SQLException {
+
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+
+    private static HikariDataSource pool(String name) {
+
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID());
+
+        return pool;
+    }
+}
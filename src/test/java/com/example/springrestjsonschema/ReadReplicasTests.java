@@ -0,0 +1,140 @@
+package com.example.springrestjsonschema;
+
+import com.example.springrestjsonschema.ReadReplicaRoutingDataSource.Route;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.http.Cookie;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs against two H2 databases, a primary and a replica nothing is replicated to, so what's read from the replica only
+ * shows once {@link #replicate()} copied it there.
+ */
+@SpringBootTest(properties = { "spring.datasource.generate-unique-name=true",
+        "restbucks.datasource.replicas=jdbc:h2:mem:replica-${random.uuid};DB_CLOSE_DELAY=-1",
+        "restbucks.datasource.max-replica-lag=5s" })
+@AutoConfigureMockMvc
+class ReadReplicasTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Autowired
+    ReadReplicaRoutingDataSource dataSource;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void readsFromReplicaOutsideOfWrites() {
+
+        Long id = orders.save(new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE))).getId();
+
+        assertThat(orders.findVersionById(id)).isEmpty();
+        assertThat(inWrite(() -> orders.findVersionById(id))).isPresent();
+
+        replicate();
+
+        assertThat(orders.findVersionById(id)).isPresent();
+    }
+
+    @Test
+    void clientReadsItsOwnWritesFromPrimary() throws Exception {
+
+        MockHttpServletResponse created = mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                .content(OrderIngestControllerTests.ORDER))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse();
+
+        Cookie primaryUntil = created.getCookie(ReadYourWritesFilter.COOKIE);
+        assertThat(primaryUntil).isNotNull();
+        assertThat(primaryUntil.getMaxAge()).isEqualTo(5);
+
+        String location = created.getHeader("Location");
+        entityManagerFactory.getCache().evictAll();
+
+        mvc.perform(get(location).accept(MediaTypes.HAL_JSON)).andExpect(status().isNotFound());
+        mvc.perform(get(location).accept(MediaTypes.HAL_JSON).cookie(primaryUntil))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PAYMENT_EXPECTED"));
+    }
+
+    @Test
+    void transitionsOrdersOnPrimary() throws Exception {
+
+        Long id = orders.save(new Order(new LineItem("Mocha", 2, Milk.WHOLE, Size.SMALL))).getId();
+
+        mvc.perform(post("/orders/{id}/transitions/{status}", id, Order.Status.PAID))
+                .andExpect(status().isOk());
+
+        assertThat(inWrite(() -> orders.findById(id))).hasValueSatisfying(
+                current -> assertThat(current.getStatus()).isEqualTo(Order.Status.PAID));
+    }
+
+    @Test
+    void keepsWhatIsReadFromReplicaOutOfCaches() {
+
+        Long id = orders.save(new Order(new LineItem("Espresso", 1, Milk.WHOLE, Size.SMALL))).getId();
+        replicate();
+
+        inWrite(() -> orders.save(orders.findById(id).get().transitionTo(Order.Status.PAID)));
+        entityManagerFactory.getCache().evictAll();
+
+        assertThat(orders.findById(id)).hasValueSatisfying(
+                stale -> assertThat(stale.getStatus()).isEqualTo(Order.Status.PAYMENT_EXPECTED));
+        assertThat(orders.findByStatus(Order.Status.PAID, PageRequest.of(0, 10)))
+                .extracting(Order::getId).doesNotContain(id);
+
+        ReadReplicaRoutingDataSource.route(Route.PRIMARY);
+
+        try {
+            assertThat(orders.findById(id)).hasValueSatisfying(
+                    current -> assertThat(current.getStatus()).isEqualTo(Order.Status.PAID));
+            assertThat(orders.findByStatus(Order.Status.PAID, PageRequest.of(0, 10)))
+                    .extracting(Order::getId).contains(id);
+        } finally {
+            ReadReplicaRoutingDataSource.clear();
+        }
+    }
+
+    private <T> T inWrite(Supplier<T> read) {
+        return new TransactionTemplate(transactionManager).execute(tx -> read.get());
+    }
+
+    /**
+     * Replaces the replica's contents with the primary's.
+     */
+    private void replicate() {
+
+        List<String> script = new JdbcTemplate(dataSource.getPrimary()).queryForList("script", String.class);
+        JdbcTemplate replica = new JdbcTemplate(dataSource.getReplicas().get(0));
+
+        replica.execute("drop all objects");
+        replica.batchUpdate(script.toArray(new String[0]));
+    }
+}
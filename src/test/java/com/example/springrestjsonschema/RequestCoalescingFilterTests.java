@@ -0,0 +1,140 @@
+package com.example.springrestjsonschema;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.generate-unique-name=true")
+class RequestCoalescingFilterTests {
+
+    @Autowired
+    RequestCoalescingFilter filter;
+
+    @Autowired
+    WriteGeneration writes;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Autowired
+    OrderTransitions transitions;
+
+    @Test
+    void sharesInFlightLoadWithIdenticalRequests() throws Exception {
+
+        double shared = shared();
+        AtomicInteger loads = new AtomicInteger();
+
+        FilterChain chain = (request, response) -> {
+
+            loads.incrementAndGet();
+
+            // holds the load until the other requests wait for it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (shared() < shared + 3 && System.nanoTime() < deadline) {
+                sleep();
+            }
+
+            ((HttpServletResponse) response).setHeader(HttpHeaders.ETAG, "\"1\"");
+            response.setContentType("application/hal+json");
+            response.getOutputStream().write("{\"status\":\"READY\"}".getBytes(StandardCharsets.UTF_8));
+        };
+
+        List<CompletableFuture<MockHttpServletResponse>> responses = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> get("/orders/1", chain)))
+                .collect(Collectors.toList());
+
+        assertThat(responses.stream().map(CompletableFuture::join).collect(Collectors.toList())).allSatisfy(response -> {
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo("\"1\"");
+            assertThat(response.getContentType()).isEqualTo("application/hal+json");
+            assertThat(new String(response.getContentAsByteArray(), StandardCharsets.UTF_8)).isEqualTo("{\"status\":\"READY\"}");
+        });
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void doesNotShareLoadsAcrossWrites() throws Exception {
+
+        Long id = orders.save(new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE))).getId();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<MockHttpServletResponse> before = CompletableFuture.supplyAsync(() -> get("/orders/" + id,
+                (request, response) -> {
+                    loading.countDown();
+                    await(release);
+                    response.getOutputStream().write("PAYMENT_EXPECTED".getBytes(StandardCharsets.UTF_8));
+                }));
+
+        await(loading);
+
+        long generation = writes.get();
+        transitions.transition(id, Order.Status.PAID);
+        assertThat(writes.get()).isGreaterThan(generation);
+
+        MockHttpServletResponse after = get("/orders/" + id,
+                (request, response) -> response.getOutputStream().write("PAID".getBytes(StandardCharsets.UTF_8)));
+        release.countDown();
+
+        assertThat(after.getContentAsString()).isEqualTo("PAID");
+        assertThat(before.join().getContentAsString()).isEqualTo("PAYMENT_EXPECTED");
+    }
+
+    private MockHttpServletResponse get(String uri, FilterChain chain) {
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader(HttpHeaders.ACCEPT, "application/hal+json");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (Exception o_O) {
+            throw new IllegalStateException(o_O);
+        }
+
+        return response;
+    }
+
+    private double shared() {
+        return registry.get("restbucks.coalescing").tag("result", "shared").counter().count();
+    }
+
+    private static void sleep() {
+
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException o_O) {
+            throw new IllegalStateException(o_O);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException o_O) {
+            throw new IllegalStateException(o_O);
+        }
+    }
+}
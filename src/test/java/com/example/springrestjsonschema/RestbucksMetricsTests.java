@@ -0,0 +1,66 @@
+package com.example.springrestjsonschema;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.generate-unique-name=true")
+@AutoConfigureMockMvc
+class RestbucksMetricsTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    void timesStagesOfCreatingAndRenderingOrder() throws Exception {
+
+        String location = mvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                .content(OrderIngestControllerTests.ORDER))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader("Location");
+
+        mvc.perform(get(location).accept(MediaTypes.HAL_JSON)).andExpect(status().isOk());
+
+        assertThat(registry.get("restbucks.repository")
+                .tags("repository", "OrderRepository", "method", "save", "entity", "Order", "exception", "none")
+                .timer().count()).isPositive();
+        assertThat(registry.get("restbucks.jackson").tags("operation", "read", "type", "Order").timer().count())
+                .isPositive();
+        assertThat(registry.get("restbucks.jackson").tags("operation", "write", "type", "Order").timer().count())
+                .isPositive();
+        assertThat(registry.get("restbucks.hal.links").tag("entity", "Order").timer().count()).isPositive();
+        assertThat(registry.get("restbucks.hibernate.flush").tag("type", "explicit").timer().count()).isPositive();
+        assertThat(registry.get("restbucks.hibernate.flush.entities").tag("type", "explicit").summary().max())
+                .isPositive();
+        assertThat(registry.get("restbucks.schema.cache").tags("entity", "Order", "result", "miss").counter().count())
+                .isPositive();
+    }
+
+    @Test
+    void exposesPercentilesThroughMetricsEndpoint() throws Exception {
+
+        mvc.perform(get("/orders"));
+
+        mvc.perform(get("/actuator/metrics/restbucks.repository").param("tag", "repository:OrderRepository"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableTags[*].tag", hasItem("method")));
+
+        mvc.perform(get("/actuator/metrics/restbucks.repository.percentile").param("tag", "phi:0.99"))
+                .andExpect(status().isOk());
+    }
+}
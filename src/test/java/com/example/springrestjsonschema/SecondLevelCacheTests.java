@@ -0,0 +1,102 @@
+package com.example.springrestjsonschema;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.generate-unique-name=true")
+@AutoConfigureMockMvc
+class SecondLevelCacheTests {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    OrderRepository orders;
+
+    @Autowired
+    OrderTransitions transitions;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+    Order order;
+
+    @BeforeEach
+    void setUp() {
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        order = orders.save(new Order(new LineItem("Latte", 1, Milk.SEMI, Size.LARGE),
+                new LineItem("Mocha", 2, Milk.WHOLE, Size.SMALL)));
+    }
+
+    @Test
+    void rendersItemResourceFromCache() throws Exception {
+
+        mvc.perform(get("/orders/{id}", order.getId())).andExpect(status().isOk());
+
+        statistics.clear();
+
+        mvc.perform(get("/orders/{id}", order.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lineItems[1].name").value("Mocha"));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(4); // order, collection, two line items
+    }
+
+    @Test
+    void invalidatesCachedOrderOnStatusTransition() throws Exception {
+
+        mvc.perform(get("/orders/{id}", order.getId()))
+                .andExpect(jsonPath("$.status").value("PAYMENT_EXPECTED"));
+
+        transitions.transition(order.getId(), Order.Status.PAID);
+
+        mvc.perform(get("/orders/{id}", order.getId()))
+                .andExpect(jsonPath("$.status").value("PAID"));
+    }
+
+    @Test
+    void cachesStatusSearchUntilOrdersChange() throws Exception {
+
+        mvc.perform(get("/orders/search/findByStatus?status=PAYMENT_EXPECTED&size=1000"));
+
+        statistics.clear();
+
+        mvc.perform(get("/orders/search/findByStatus?status=PAYMENT_EXPECTED&size=1000"))
+                .andExpect(jsonPath("$._embedded.orders[*]._links.self.href",
+                        hasItem("http://localhost/orders/" + order.getId())));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1); // no count query as the page isn't full
+
+        transitions.transition(order.getId(), Order.Status.PAID);
+
+        mvc.perform(get("/orders/search/findByStatus?status=PAID&size=1000"))
+                .andExpect(jsonPath("$._embedded.orders[*]._links.self.href",
+                        hasItem("http://localhost/orders/" + order.getId())));
+    }
+
+    @Test
+    void exposesCacheMetrics() throws Exception {
+
+        mvc.perform(get("/actuator/metrics/hibernate.second.level.cache.requests").param("tag", "result:hit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").isNumber());
+    }
+}